@@ -0,0 +1,348 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.ivang.axonix.desktop.headless.HeadlessEnvironment;
+import net.ivang.axonix.main.actors.game.level.Level;
+import net.ivang.axonix.main.actors.game.level.Protagonist;
+import net.ivang.axonix.main.actors.game.level.bonuses.LifeBonus;
+import net.ivang.axonix.main.events.facts.level.LevelProgressFact;
+import net.ivang.axonix.main.events.intents.game.LivesIntent;
+import net.ivang.axonix.main.input.ProtagonistController;
+import net.ivang.axonix.main.input.bots.RandomWalker;
+import net.ivang.axonix.main.input.bots.RectangleCarver;
+import net.ivang.axonix.main.levels.LevelFiles;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Estimates the difficulty of the level files by letting a bot play each of them
+ * many times in parallel, from the start with three lives until the level is
+ * completed or the lives are over. Writes the statistics per level as JSON.
+ * Should be started from the Android project's assets/ folder, e.g.
+ * <pre>
+ * java -cp ... net.ivang.axonix.benchmarks.DifficultyEstimator --sessions 200 --bot carver
+ * </pre>
+ * The bots are seeded per session, but the enemies and bonuses share the global
+ * random generator, so the numbers are repeatable only statistically.
+ * The levels are safe to play on several threads, as their animations use no pooled actions.
+ * The fill stalls are measured in the CPU time of the session thread, so the other sessions
+ * do not inflate them.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class DifficultyEstimator {
+
+    private static final float FRAME_TIME = 1 / 60f;
+    private static final int INITIAL_LIVES = 3;
+    private static final int MILESTONE_PERCENT = 80;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        int sessions = 50;
+        String bot = "carver";
+        int threads = Runtime.getRuntime().availableProcessors();
+        // give up on a session if the bot is stuck
+        int maxFrames = 60 * 60 * 10;
+        long seed = 1;
+        String out = "data/levels/difficulty.json";
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            String value = args[i + 1];
+            if (args[i].equals("--sessions")) {
+                sessions = Integer.parseInt(value);
+            } else if (args[i].equals("--bot")) {
+                bot = value;
+            } else if (args[i].equals("--threads")) {
+                threads = Integer.parseInt(value);
+            } else if (args[i].equals("--frames")) {
+                maxFrames = Integer.parseInt(value);
+            } else if (args[i].equals("--seed")) {
+                seed = Long.parseLong(value);
+            } else if (args[i].equals("--out")) {
+                out = value;
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        HeadlessEnvironment.init();
+        LevelFiles levels = new LevelFiles(Gdx.files.internal("data/levels"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("difficulty-estimator-%d").setDaemon(true).build());
+        List<List<Future<Session>>> futures = new ArrayList<List<Future<Session>>>();
+        for (int levelIndex = 1; levelIndex <= levels.size(); levelIndex++) {
+            List<Future<Session>> levelFutures = new ArrayList<Future<Session>>();
+            for (int i = 0; i < sessions; i++) {
+                long sessionSeed = seed * 31 + levelIndex * sessions + i;
+                levelFutures.add(executor.submit(new Session(levelIndex, levels, bot, sessionSeed, maxFrames)));
+            }
+            futures.add(levelFutures);
+        }
+
+        List<LevelReport> reports = new ArrayList<LevelReport>();
+        for (int levelIndex = 1; levelIndex <= levels.size(); levelIndex++) {
+            LevelReport report = new LevelReport(levels.getFile(levelIndex).name());
+            for (Future<Session> future : futures.get(levelIndex - 1)) {
+                report.add(future.get());
+            }
+            reports.add(report);
+            System.out.println(report);
+        }
+        executor.shutdown();
+
+        writeJson(reports, out);
+        System.out.println("Results written to " + out);
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private static void writeJson(List<LevelReport> reports, String path) throws IOException {
+        Writer writer = new BufferedWriter(new FileWriter(path));
+        try {
+            writer.write("[\n");
+            for (int i = 0; i < reports.size(); i++) {
+                reports.get(i).write(writer);
+                writer.write(i < reports.size() - 1 ? ",\n" : "\n");
+            }
+            writer.write("]\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static ProtagonistController createBot(String name, long seed) {
+        if (name.equals("carver")) {
+            return new RectangleCarver(seed);
+        } else if (name.equals("random")) {
+            return new RandomWalker(seed);
+        }
+        throw new IllegalArgumentException("Unknown bot: " + name);
+    }
+
+    /**
+     * @return CPU time of the current thread in nanoseconds, or the wall time if it is not supported
+     */
+    private static long getCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    private static String number(double value) {
+        return String.format(Locale.US, "%.3f", value);
+    }
+
+    private static String quote(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    /**
+     * A single play of a level, listening to its own event bus.
+     */
+    public static class Session implements Callable<Session> {
+        private final int levelIndex;
+        private final LevelFiles levels;
+        private final String bot;
+        private final long seed;
+        private final int maxFrames;
+
+        private Level level;
+        private int lives = INITIAL_LIVES;
+        private int frames;
+        private int percentComplete;
+        private boolean progressed;
+        private boolean completed;
+        // frames until the milestone percent, or -1
+        private int milestoneFrames = -1;
+        private int[] deaths = new int[Protagonist.DeathCause.values().length];
+        private long maxFillNanos;
+        private int maxBonuses;
+        private int maxParticles;
+
+        public Session(int levelIndex, LevelFiles levels, String bot, long seed, int maxFrames) {
+            this.levelIndex = levelIndex;
+            this.levels = levels;
+            this.bot = bot;
+            this.seed = seed;
+            this.maxFrames = maxFrames;
+        }
+
+        @Override
+        public Session call() {
+            EventBus eventBus = new EventBus();
+            eventBus.register(this);
+            Pixmap pixmap = levels.createPixmap(levelIndex);
+            try {
+                level = new Level(levelIndex, pixmap, HeadlessEnvironment.getSkin(), eventBus);
+            } finally {
+                pixmap.dispose();
+            }
+            level.getProtagonist().setController(createBot(bot, seed));
+            level.register();
+            level.start();
+            level.setState(Level.State.PLAYING);
+
+            while (frames < maxFrames && lives > 0 && !completed) {
+                progressed = false;
+                long start = getCpuTime();
+                level.act(FRAME_TIME);
+                long nanos = getCpuTime() - start;
+                frames++;
+                // the frames with a closure are the ones filling the areas
+                if (progressed) maxFillNanos = Math.max(maxFillNanos, nanos);
+                maxBonuses = Math.max(maxBonuses, level.getBonusesNum());
+                maxParticles = Math.max(maxParticles, level.getActiveParticlesNum());
+            }
+
+            level.unregister();
+            level = null;
+            return this;
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onLevelProgressChange(LevelProgressFact fact) {
+            // the enemies destroying blocks make it go down
+            if (fact.getPercentComplete() > percentComplete) progressed = true;
+            percentComplete = fact.getPercentComplete();
+            if (milestoneFrames < 0 && percentComplete >= MILESTONE_PERCENT) {
+                milestoneFrames = frames + 1;
+            }
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onProtagonistStateChange(Protagonist.State state) {
+            if (state == Protagonist.State.DYING) {
+                deaths[level.getProtagonist().getDeathCause().ordinal()]++;
+            }
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onLivesChange(LivesIntent intent) {
+            lives += intent.getLivesDelta();
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onLifeBonus(LifeBonus bonus) {
+            lives++;
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onLevelStateChange(Level.State state) {
+            if (state == Level.State.LEVEL_COMPLETED) completed = true;
+        }
+    }
+
+    /**
+     * Statistics of all the sessions of a level.
+     */
+    public static class LevelReport {
+        private final String name;
+        private int sessions;
+        private int completions;
+        private List<Integer> milestoneFrames = new ArrayList<Integer>();
+        private int[] deaths = new int[Protagonist.DeathCause.values().length];
+        private long maxFillNanos;
+        private int maxBonuses;
+        private int maxParticles;
+
+        public LevelReport(String name) {
+            this.name = name;
+        }
+
+        public void add(Session session) {
+            sessions++;
+            if (session.completed) completions++;
+            if (session.milestoneFrames >= 0) milestoneFrames.add(session.milestoneFrames);
+            for (int i = 0; i < deaths.length; i++) {
+                deaths[i] += session.deaths[i];
+            }
+            maxFillNanos = Math.max(maxFillNanos, session.maxFillNanos);
+            maxBonuses = Math.max(maxBonuses, session.maxBonuses);
+            maxParticles = Math.max(maxParticles, session.maxParticles);
+        }
+
+        public void write(Writer writer) throws IOException {
+            writer.write("{\"level\":" + quote(name) + ",\"sessions\":" + sessions);
+            writer.write(",\"completionProbability\":" + number(getCompletionProbability()));
+            double median = getMedianMilestoneTime();
+            writer.write(",\"medianTimeTo" + MILESTONE_PERCENT + "\":" + (median < 0 ? "null" : number(median)));
+            writer.write(",\"deaths\":{");
+            Protagonist.DeathCause[] causes = Protagonist.DeathCause.values();
+            for (int i = 0; i < causes.length; i++) {
+                writer.write((i > 0 ? "," : "") + quote(causes[i].name().toLowerCase(Locale.US)) + ":" + deaths[i]);
+            }
+            writer.write("},\"engine\":{\"peakFillStallMs\":" + number(maxFillNanos / 1e6));
+            writer.write(",\"maxBonuses\":" + maxBonuses + ",\"maxParticles\":" + maxParticles + "}}");
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%-12s completed %5.1f%%, median to %d%% %7.1f s, deaths %s, fill stall %.3f ms, bonuses %d, particles %d",
+                    name, getCompletionProbability() * 100, MILESTONE_PERCENT, getMedianMilestoneTime(),
+                    Arrays.toString(deaths), maxFillNanos / 1e6, maxBonuses, maxParticles);
+        }
+
+        public double getCompletionProbability() {
+            return (sessions > 0) ? (double) completions / sessions : 0;
+        }
+
+        /**
+         * @return median game time in seconds to reach the milestone percent,
+         * over the sessions that did, or -1 if none did
+         */
+        public double getMedianMilestoneTime() {
+            if (milestoneFrames.isEmpty()) return -1;
+            Integer[] sorted = milestoneFrames.toArray(new Integer[milestoneFrames.size()]);
+            Arrays.sort(sorted);
+            int middle = sorted.length / 2;
+            double frames = (sorted.length % 2 == 1) ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2d;
+            return frames * FRAME_TIME;
+        }
+    }
+
+}
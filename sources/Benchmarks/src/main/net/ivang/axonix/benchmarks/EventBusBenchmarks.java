@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.benchmarks;
+
+import com.badlogic.gdx.math.Vector2;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import net.ivang.axonix.main.events.facts.EnemyBounceFact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fan-out cost of {@link EventBus#post(Object)} for a growing number of subscribers.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EventBusBenchmarks {
+
+    private static final int POSTS_PER_INVOCATION = 100;
+
+    @Param({"1", "10", "100", "1000"})
+    public int subscribers;
+
+    private EnemyBounceFact fact;
+    private EventBus eventBus;
+    private Subscriber subscriber;
+
+    @Setup
+    public void setupTrial() {
+        fact = new EnemyBounceFact(new Vector2(1, 1));
+        eventBus = new EventBus();
+        for (int i = 0; i < subscribers; i++) {
+            subscriber = new Subscriber();
+            eventBus.register(subscriber);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSTS_PER_INVOCATION)
+    public int post() {
+        for (int i = 0; i < POSTS_PER_INVOCATION; i++) {
+            eventBus.post(fact);
+        }
+        return subscriber.received;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public static class Subscriber {
+        private int received;
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onEnemyBounce(EnemyBounceFact fact) {
+            received++;
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.benchmarks;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.math.MathUtils;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import net.ivang.axonix.desktop.headless.HeadlessEnvironment;
+import net.ivang.axonix.main.actors.game.level.CrawlerCheck;
+import net.ivang.axonix.main.actors.game.level.Level;
+import net.ivang.axonix.main.actors.game.level.Protagonist;
+import net.ivang.axonix.main.events.AuditedEventBus;
+import net.ivang.axonix.main.events.facts.level.LevelProgressFact;
+import net.ivang.axonix.main.input.ProtagonistController;
+import net.ivang.axonix.main.input.bots.RandomWalker;
+import net.ivang.axonix.main.input.bots.RectangleCarver;
+import net.ivang.axonix.main.levels.LevelFiles;
+import net.ivang.axonix.main.levels.LevelGenerator;
+import net.ivang.axonix.main.levels.LevelSource;
+
+/**
+ * Lets a bot play level after level without a window, reporting the frame times
+ * periodically. With the same seed and frame time, the runs are repeatable.
+ * As in the game, all the levels share an event bus, audited to fail on the subscribers
+ * outliving their level, so the heap should stay flat however long the run is.
+ * Every frame, the crawling enemies are checked not to come off the contours they follow.
+ * Should be started from the Android project's assets/ folder, e.g.
+ * <pre>
+ * java -cp ... net.ivang.axonix.benchmarks.SoakStarter --bot carver --levels endless --minutes 120
+ * </pre>
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class SoakStarter {
+
+    private static final float FRAME_TIME = 1 / 60f;
+    private static final int REPORT_INTERVAL = 10000;
+
+    public static void main(String[] args) {
+        String bot = "carver";
+        String levels = "files";
+        long seed = 1;
+        float minutes = 10;
+        long maxFrames = Long.MAX_VALUE;
+        // move on to the next level if the bot is stuck
+        int levelFrames = 60 * 60 * 10;
+
+        for (int i = 0; i < args.length - 1; i += 2) {
+            String value = args[i + 1];
+            if (args[i].equals("--bot")) {
+                bot = value;
+            } else if (args[i].equals("--levels")) {
+                levels = value;
+            } else if (args[i].equals("--seed")) {
+                seed = Long.parseLong(value);
+            } else if (args[i].equals("--minutes")) {
+                minutes = Float.parseFloat(value);
+            } else if (args[i].equals("--frames")) {
+                maxFrames = Long.parseLong(value);
+            } else if (args[i].equals("--level-frames")) {
+                levelFrames = Integer.parseInt(value);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        HeadlessEnvironment.init();
+        MathUtils.random.setSeed(seed);
+        LevelSource source = levels.equals("endless")
+                ? new LevelGenerator(seed)
+                : new LevelFiles(Gdx.files.internal("data/levels"));
+
+        AuditedEventBus eventBus = new AuditedEventBus();
+        eventBus.setFailOnLeak(true);
+        Stats stats = new Stats(eventBus);
+        eventBus.register(stats);
+        long deadline = System.currentTimeMillis() + (long) (minutes * 60 * 1000);
+        long nextReport = System.currentTimeMillis() + REPORT_INTERVAL;
+        int levelIndex = 1;
+
+        while (stats.frames < maxFrames && System.currentTimeMillis() < deadline) {
+            Level level = build(levelIndex, source, eventBus);
+            level.getProtagonist().setController(createBot(bot, seed + levelIndex));
+            AuditedEventBus.Scope scope = eventBus.beginScope("Level " + levelIndex);
+            level.register();
+            level.start();
+            level.setState(Level.State.PLAYING);
+            CrawlerCheck crawlers = new CrawlerCheck(level);
+            stats.completed = false;
+            stats.percentComplete = 0;
+
+            for (int frame = 0; frame < levelFrames && !stats.completed; frame++) {
+                long start = System.nanoTime();
+                level.act(FRAME_TIME);
+                stats.addFrame(System.nanoTime() - start);
+                crawlers.check(levelIndex, frame);
+                if (System.currentTimeMillis() >= nextReport) {
+                    System.out.println(stats.report(levelIndex));
+                    nextReport += REPORT_INTERVAL;
+                }
+                if (stats.frames >= maxFrames || System.currentTimeMillis() >= deadline) break;
+            }
+
+            level.unregister();
+            eventBus.endScope(scope);
+            if (stats.completed) stats.levels++;
+            levelIndex = (levelIndex < source.size()) ? levelIndex + 1 : 1;
+        }
+        System.out.println(stats.report(levelIndex));
+        System.exit(0);
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private static Level build(int levelIndex, LevelSource source, EventBus eventBus) {
+        Pixmap pixmap = source.createPixmap(levelIndex);
+        try {
+            return new Level(levelIndex, pixmap, HeadlessEnvironment.getSkin(), eventBus);
+        } finally {
+            pixmap.dispose();
+        }
+    }
+
+    private static ProtagonistController createBot(String name, long seed) {
+        if (name.equals("carver")) {
+            return new RectangleCarver(seed);
+        } else if (name.equals("random")) {
+            return new RandomWalker(seed);
+        }
+        throw new IllegalArgumentException("Unknown bot: " + name);
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public static class Stats {
+        private final AuditedEventBus eventBus;
+        private long frames;
+        private long totalNanos;
+        private long maxNanos;
+        private int closures;
+        private int percentComplete;
+        private int deaths;
+        private int levels;
+        private boolean completed;
+
+        Stats(AuditedEventBus eventBus) {
+            this.eventBus = eventBus;
+        }
+
+        void addFrame(long nanos) {
+            frames++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+        }
+
+        String report(int levelIndex) {
+            double mean = (frames > 0) ? totalNanos / 1e6 / frames : 0;
+            long heap = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+            return String.format("level %d, frames %d, act mean %.3f ms, max %.3f ms, closures %d, deaths %d, levels completed %d, subscribers %d, heap %d MB",
+                    levelIndex, frames, mean, maxNanos / 1e6, closures, deaths, levels, eventBus.getRegistrationsNum(), heap);
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onLevelProgressChange(LevelProgressFact fact) {
+            // the enemies destroying blocks make it go down
+            if (fact.getPercentComplete() > percentComplete) closures++;
+            percentComplete = fact.getPercentComplete();
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onProtagonistStateChange(Protagonist.State state) {
+            if (state == Protagonist.State.DYING) deaths++;
+        }
+
+        @Subscribe
+        @SuppressWarnings("unused")
+        public void onLevelStateChange(Level.State state) {
+            if (state == Level.State.LEVEL_COMPLETED) completed = true;
+        }
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.benchmarks;
+
+import com.badlogic.gdx.graphics.Pixmap;
+
+import java.util.Random;
+
+import static net.ivang.axonix.main.actors.game.level.Level.MapColors;
+
+/**
+ * Generates level maps of arbitrary size in the same pixel format
+ * as the PNGs under data/levels.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public final class StressMaps {
+
+    private static final int EMPTY = 0x000000;
+    private static final int ROOM_SIZE = 8;
+
+    private StressMaps() {
+    }
+
+    /**
+     * Creates a map bordered by hard blocks with the given inner layout.
+     * The protagonist is placed on the bottom border.
+     */
+    public static Pixmap create(int width, int height, Shape shape) {
+        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        pixmap.setColor(rgba(EMPTY));
+        pixmap.fill();
+        pixmap.setColor(rgba(MapColors.BLOCK_BLUE_HARD));
+        pixmap.drawRectangle(0, 0, width, height);
+
+        switch (shape) {
+            case OPEN:
+                pixmap.drawPixel(width / 2, height / 2, rgba(MapColors.ENEMY_RED));
+                break;
+            case HALF:
+                pixmap.drawLine(width / 2, 0, width / 2, height - 1);
+                pixmap.drawPixel(width * 3 / 4, height / 2, rgba(MapColors.ENEMY_RED));
+                break;
+            case ROOMS:
+                for (int x = ROOM_SIZE; x < width - 1; x += ROOM_SIZE) {
+                    pixmap.drawLine(x, 0, x, height - 1);
+                }
+                for (int y = ROOM_SIZE; y < height - 1; y += ROOM_SIZE) {
+                    pixmap.drawLine(0, y, width - 1, y);
+                }
+                pixmap.drawPixel(ROOM_SIZE / 2, ROOM_SIZE / 2, rgba(MapColors.ENEMY_RED));
+                break;
+            case SERPENTINE:
+                for (int x = 2; x < width - 2; x += 2) {
+                    // leave a gap alternately at the top and at the bottom
+                    int gap = (x % 4 == 0) ? 1 : height - 2;
+                    pixmap.drawLine(x, 0, x, height - 1);
+                    pixmap.drawPixel(x, gap, rgba(EMPTY));
+                }
+                pixmap.drawPixel(1, 1, rgba(MapColors.ENEMY_RED));
+                break;
+        }
+
+        pixmap.drawPixel(width / 2, height - 1, rgba(MapColors.PROTAGONIST));
+        return pixmap;
+    }
+
+    /**
+     * Places enemies of the given color on random empty cells.
+     */
+    public static void addEnemies(Pixmap pixmap, int count, int color, long seed) {
+        Random random = new Random(seed);
+        int width = pixmap.getWidth();
+        int height = pixmap.getHeight();
+        for (int i = 0; i < count; i++) {
+            int x, y;
+            do {
+                x = 1 + random.nextInt(width - 2);
+                y = 1 + random.nextInt(height - 2);
+            } while (((pixmap.getPixel(x, y) >>> 8) & 0xffffff) != EMPTY);
+            pixmap.drawPixel(x, y, rgba(color));
+        }
+    }
+
+    /**
+     * Parses sizes like "40x20".
+     */
+    public static int[] parseSize(String size) {
+        String[] parts = size.trim().toLowerCase().split("x");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Size should look like 40x20: " + size);
+        }
+        return new int[] {Integer.parseInt(parts[0]), Integer.parseInt(parts[1])};
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private static int rgba(int rgb) {
+        return (rgb << 8) | 0xff;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public enum Shape {
+        /** no walls, nothing gets filled */
+        OPEN,
+        /** one wall across the map, half of it gets filled */
+        HALF,
+        /** a grid of small closed rooms, all but one get filled */
+        ROOMS,
+        /** a single winding corridor, worst case for merging spot labels */
+        SERPENTINE
+    }
+
+}
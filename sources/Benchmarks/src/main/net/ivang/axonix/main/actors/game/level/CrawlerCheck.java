@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import net.ivang.axonix.main.actors.game.level.enemies.EnemySystem;
+
+/**
+ * Fails if a crawling enemy stops touching the non-empty cells while attached to a wall.
+ * A crawler is not attached yet if it spawns without a wall on its side, and gets detached when
+ * the cells around it become empty, e.g. the tail it followed is gone. A detached crawler
+ * goes straight and attaches again at its first turn next to a wall.
+ * Lives in the level package to reach the enemies of the level.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class CrawlerCheck {
+
+    private final Level level;
+    private final EnemySystem enemies;
+    private final int width;
+    private final int height;
+    private final int[] cellX;
+    private final int[] cellY;
+    private final int[] solidCells;
+    private final float[] directionX;
+    private final float[] directionY;
+    private final boolean[] detached;
+
+    public CrawlerCheck(Level level) {
+        this.level = level;
+        this.enemies = level.getEnemies();
+        this.width = (int) level.getMapWidth();
+        this.height = (int) level.getMapHeight();
+        int size = enemies.size();
+        this.cellX = new int[size];
+        this.cellY = new int[size];
+        this.solidCells = new int[size];
+        this.directionX = new float[size];
+        this.directionY = new float[size];
+        this.detached = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            update(i);
+            detached[i] = !hasWallAside(i);
+        }
+    }
+
+    public void check(int levelIndex, int frame) {
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.isChasingTail(i) || enemies.isBouncingOffBlocks(i)) continue;
+            // some of the cells it was following have become empty
+            boolean contourChanged = (solidCells[i] & ~getSolidCells(cellX[i], cellY[i])) != 0;
+            boolean turned = enemies.getDirectionX(i) != directionX[i] || enemies.getDirectionY(i) != directionY[i];
+            update(i);
+            if (contourChanged) {
+                detached[i] = true;
+            } else if (turned && solidCells[i] != 0) {
+                detached[i] = false;
+            }
+            if (solidCells[i] == 0 && !detached[i]) {
+                throw new IllegalStateException(String.format("Crawling enemy %d came off the contour at (%.3f, %.3f), level %d, frame %d",
+                        i, enemies.getX(i), enemies.getY(i), levelIndex, frame));
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void update(int i) {
+        cellX[i] = (int) enemies.getX(i);
+        cellY[i] = (int) enemies.getY(i);
+        solidCells[i] = getSolidCells(cellX[i], cellY[i]);
+        directionX[i] = enemies.getDirectionX(i);
+        directionY[i] = enemies.getDirectionY(i);
+    }
+
+    /**
+     * @return true if the cell on the wall side of the crawler is not empty, i.e. on the left
+     * of the clockwise crawlers and on the right of the counter-clockwise ones
+     */
+    private boolean hasWallAside(int i) {
+        int side = enemies.isMovingClockwise(i) ? 1 : -1;
+        int dx = -side * (int) directionY[i];
+        int dy = side * (int) directionX[i];
+        return (solidCells[i] & (1 << ((dx + 1) * 3 + dy + 1))) != 0;
+    }
+
+    /**
+     * @return bits of the non-empty cells around (x, y), diagonal ones and the map border included
+     */
+    private int getSolidCells(int x, int y) {
+        int bits = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int nx = x + dx;
+                int ny = y + dy;
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height || !level.getBlock(nx, ny).isEmpty()) {
+                    bits |= 1 << ((dx + 1) * 3 + dy + 1);
+                }
+            }
+        }
+        return bits;
+    }
+
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.google.common.eventbus.EventBus;
+import net.ivang.axonix.benchmarks.StressMaps;
+import net.ivang.axonix.desktop.headless.HeadlessEnvironment;
+import net.ivang.axonix.main.actors.game.level.blocks.Block;
+import net.ivang.axonix.main.actors.game.level.enemies.EnemySystem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static net.ivang.axonix.main.actors.game.level.Level.MapColors;
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+import static org.openjdk.jmh.annotations.Level.Invocation;
+
+/**
+ * Benchmarks of the level engine hot paths on generated maps. Lives in the level package
+ * to reach the package-private engine methods. Every invocation is timed separately,
+ * so the per-invocation setup is kept out of the measurements.
+ * The 2000x2000 maps need a few gigabytes of heap.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class LevelBenchmarks {
+
+    private static final float FRAME_DELTA = 1 / 60f;
+
+    /**
+     * Fills the areas of a map that has just been fenced.
+     */
+    @Benchmark
+    public int fillAreas(FillAreas state) {
+        return state.level.fillAreas();
+    }
+
+    /**
+     * One burn step of a tail that winds through the whole map.
+     */
+    @Benchmark
+    public Tail checkTail(CheckTail state) {
+        // long enough to make the fire spread on every call
+        state.level.checkTail(1f);
+        return state.tail;
+    }
+
+    /**
+     * Enemy collision checks against the protagonist, bonuses and blocks.
+     */
+    @Benchmark
+    public EnemySystem checkEnemies(CheckEnemies state) {
+        state.level.checkEnemies(FRAME_DELTA);
+        return state.level.getEnemies();
+    }
+
+    /**
+     * Updates enemy particles and bonus timers. Movement is measured by {@link #checkEnemies}.
+     */
+    @Benchmark
+    public EnemySystem updateEnemies(UpdateEnemies state) {
+        state.level.getEnemies().act(FRAME_DELTA);
+        return state.level.getEnemies();
+    }
+
+    /**
+     * Builds the whole level structure from a pixmap.
+     */
+    @Benchmark
+    public Level initFromPixmap(InitFromPixmap state) {
+        return new Level(1, state.pixmap, state.skin, state.eventBus);
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    @State(Scope.Thread)
+    public static abstract class LevelState {
+        @Param({"40x20", "200x100", "500x500", "1000x1000", "2000x2000"})
+        public String size;
+
+        protected int width;
+        protected int height;
+        protected Skin skin;
+        protected Pixmap pixmap;
+        protected Level level;
+
+        @Setup
+        public void setupTrial() {
+            int[] mapSize = StressMaps.parseSize(size);
+            width = mapSize[0];
+            height = mapSize[1];
+            HeadlessEnvironment.init();
+            skin = HeadlessEnvironment.getSkin();
+            pixmap = createPixmap();
+            level = createLevel();
+        }
+
+        @TearDown
+        public void tearDownTrial() {
+            level = null;
+            pixmap.dispose();
+        }
+
+        protected Pixmap createPixmap() {
+            return StressMaps.create(width, height, StressMaps.Shape.OPEN);
+        }
+
+        protected Level createLevel() {
+            return new Level(1, pixmap, skin, new EventBus());
+        }
+    }
+
+    /**
+     * Filled cells are turned back to empty between invocations.
+     */
+    @State(Scope.Thread)
+    public static class FillAreas extends LevelState {
+        @Param
+        public StressMaps.Shape shape;
+
+        private boolean dirty;
+
+        @Override
+        protected Pixmap createPixmap() {
+            return StressMaps.create(width, height, shape);
+        }
+
+        @Setup(Invocation)
+        public void setupInvocation() {
+            if (dirty) {
+                for (int x = 1; x < width - 1; x++) {
+                    for (int y = 1; y < height - 1; y++) {
+                        Block block = level.getBlock(x, y);
+                        if (block.hasType(Type.GREEN)) {
+                            block.clearActions();
+                            block.setType(Type.EMPTY);
+                        }
+                    }
+                }
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * The tail has the given number of fires spread evenly along it.
+     */
+    @State(Scope.Thread)
+    public static class CheckTail extends LevelState {
+        @Param({"1", "64"})
+        public int fires;
+
+        private Tail tail;
+
+        @Override
+        protected Level createLevel() {
+            Level level = super.createLevel();
+            tail = level.getTail();
+            for (int x = 1; x < width - 1; x++) {
+                for (int i = 1; i < height - 1; i++) {
+                    int y = (x % 2 == 1) ? i : height - 1 - i;
+                    Block block = level.getBlock(x, y);
+                    block.setType(Type.TAIL);
+                    tail.add(block);
+                }
+            }
+            return level;
+        }
+
+        @Setup(Invocation)
+        public void setupInvocation() {
+            tail.extinguish();
+            // the previous invocations have burnt the blocks around the fires
+            for (int i = 0; i < tail.size(); i++) {
+                tail.get(i).setType(Type.TAIL);
+            }
+            int step = tail.size() / (fires + 1);
+            for (int i = 1; i <= fires; i++) {
+                level.burnTailBlock(tail.get(i * step));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class CheckEnemies extends LevelState {
+        @Param({"bouncing", "crawling"})
+        public String movement;
+
+        @Param({"10", "500"})
+        public int enemies;
+
+        @Override
+        protected Pixmap createPixmap() {
+            Pixmap pixmap = super.createPixmap();
+            int color = movement.equals("crawling") ? MapColors.ENEMY_BLUE_R : MapColors.ENEMY_RED;
+            StressMaps.addEnemies(pixmap, enemies, color, 42);
+            return pixmap;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class UpdateEnemies extends LevelState {
+        @Param({"10", "500"})
+        public int enemies;
+
+        @Override
+        protected Pixmap createPixmap() {
+            Pixmap pixmap = super.createPixmap();
+            StressMaps.addEnemies(pixmap, enemies, MapColors.ENEMY_RED, 42);
+            return pixmap;
+        }
+    }
+
+    /**
+     * Only the pixmap is prepared, the level itself is what gets measured.
+     */
+    @State(Scope.Thread)
+    public static class InitFromPixmap extends LevelState {
+        private EventBus eventBus;
+
+        @Override
+        protected Pixmap createPixmap() {
+            Pixmap pixmap = super.createPixmap();
+            StressMaps.addEnemies(pixmap, 3, MapColors.ENEMY_RED, 42);
+            StressMaps.addEnemies(pixmap, 3, MapColors.ENEMY_PURPLE, 43);
+            StressMaps.addEnemies(pixmap, 3, MapColors.ENEMY_BLUE_U, 44);
+            return pixmap;
+        }
+
+        @Override
+        protected Level createLevel() {
+            eventBus = new EventBus();
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.desktop;
+
+import com.google.common.eventbus.EventBus;
+import com.google.inject.AbstractModule;
+import com.google.inject.Singleton;
+import net.ivang.axonix.main.audio.sound.SoundBackend;
+import net.ivang.axonix.main.audio.sound.software.SoftwareSoundBackend;
+import net.ivang.axonix.main.events.AuditedEventBus;
+
+/**
+ * Desktop specific bindings.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class DesktopModule extends AbstractModule {
+
+    private final boolean softwareAudio;
+    private final boolean auditEvents;
+
+    public DesktopModule(boolean softwareAudio, boolean auditEvents) {
+        this.softwareAudio = softwareAudio;
+        this.auditEvents = auditEvents;
+    }
+
+    @Override
+    protected void configure() {
+        // Audio
+        if (softwareAudio) {
+            bind(SoundBackend.class).toInstance(new SoftwareSoundBackend(new OggPcmDecoder()));
+        }
+        // Event Bus
+        if (auditEvents) {
+            bind(EventBus.class).to(AuditedEventBus.class).in(Singleton.class);
+        }
+    }
+
+}
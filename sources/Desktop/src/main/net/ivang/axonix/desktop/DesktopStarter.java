@@ -20,6 +20,8 @@ import com.badlogic.gdx.backends.lwjgl.LwjglApplication;
 import com.badlogic.gdx.backends.lwjgl.LwjglApplicationConfiguration;
 import net.ivang.axonix.main.AxonixGameWrapper;
 
+import java.util.Arrays;
+
 /**
  * @author Ivan Gadzhega
  * @version $Id$
@@ -33,7 +35,10 @@ public class DesktopStarter {
         cfg.useGL20 = true;
         cfg.width = 800;
         cfg.height = 480;
-        new LwjglApplication(new AxonixGameWrapper(), cfg);
+        boolean softwareAudio = Arrays.asList(args).contains("--software-audio");
+        // report the event bus subscribers outliving their screen or level
+        boolean auditEvents = Arrays.asList(args).contains("--audit-events");
+        new LwjglApplication(new AxonixGameWrapper(new DesktopModule(softwareAudio, auditEvents)), cfg);
     }
 
 }
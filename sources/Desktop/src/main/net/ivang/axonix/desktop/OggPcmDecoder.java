@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.desktop;
+
+import com.badlogic.gdx.backends.openal.OggInputStream;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import net.ivang.axonix.main.audio.sound.software.PcmData;
+import net.ivang.axonix.main.audio.sound.software.PcmDecoder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+
+/**
+ * Decodes OGG files using the decoder of the desktop backend.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class OggPcmDecoder implements PcmDecoder {
+
+    @Override
+    public PcmData decode(FileHandle file) {
+        OggInputStream input = new OggInputStream(file.read());
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(4096);
+            byte[] buffer = new byte[2048];
+            while (!input.atEnd()) {
+                int length = input.read(buffer);
+                if (length == -1) break;
+                output.write(buffer, 0, length);
+            }
+            // the stream provides 16-bit samples in the native byte order
+            ShortBuffer shorts = ByteBuffer.wrap(output.toByteArray()).order(ByteOrder.nativeOrder()).asShortBuffer();
+            short[] samples = new short[shorts.remaining()];
+            shorts.get(samples);
+            return new PcmData(samples, input.getChannels(), input.getSampleRate());
+        } catch (RuntimeException e) {
+            throw new GdxRuntimeException("Unable to decode file: " + file, e);
+        } finally {
+            input.close();
+        }
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.desktop.headless;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Graphics;
+import com.badlogic.gdx.backends.lwjgl.LwjglFiles;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.GLCommon;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * Sets up just enough of the libGDX environment to build levels without a window:
+ * real files and natives, and no-op stand-ins for the application, graphics and GL.
+ * Expects the Android project's assets/ folder to be the working directory.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public final class HeadlessEnvironment {
+
+    private static Skin skin;
+
+    private HeadlessEnvironment() {
+    }
+
+    public static synchronized void init() {
+        if (skin != null) return;
+
+        GdxNativesLoader.load();
+        Gdx.files = new LwjglFiles();
+
+        Object gl = stub(new Class<?>[] {GL20.class, GL10.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                return defaultValue(method.getReturnType());
+            }
+        });
+        Gdx.gl = (GLCommon) gl;
+        Gdx.gl20 = (GL20) gl;
+        Gdx.gl10 = (GL10) gl;
+
+        Gdx.app = (Application) stub(new Class<?>[] {Application.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if (method.getName().equals("getType")) {
+                    return Application.ApplicationType.Desktop;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+
+        Gdx.graphics = (Graphics) stub(new Class<?>[] {Graphics.class}, new InvocationHandler() {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if (name.equals("isGL20Available")) {
+                    return true;
+                } else if (name.equals("getGL20") || name.equals("getGLCommon")) {
+                    return Gdx.gl20;
+                } else if (name.equals("getWidth")) {
+                    return 800;
+                } else if (name.equals("getHeight")) {
+                    return 480;
+                } else if (name.equals("getDeltaTime") || name.equals("getRawDeltaTime")) {
+                    return 1 / 60f;
+                }
+                return defaultValue(method.getReturnType());
+            }
+        });
+
+        TextureAtlas atlas = new TextureAtlas("data/atlas/axonix_atlas.atlas");
+        skin = new Skin(Gdx.files.internal("data/skin/axonix_skin.json"), atlas);
+    }
+
+    public static Skin getSkin() {
+        init();
+        return skin;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private static Object stub(Class<?>[] interfaces, InvocationHandler handler) {
+        return Proxy.newProxyInstance(HeadlessEnvironment.class.getClassLoader(), interfaces, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == float.class) return 0f;
+        if (type == double.class) return 0d;
+        if (type == String.class) return "";
+        return null;
+    }
+
+}
@@ -20,7 +20,6 @@ import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.Screen;
-import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.utils.Logger;
@@ -31,11 +30,13 @@ import com.google.inject.Inject;
 import net.ivang.axonix.main.events.facts.screen.GameScreenFact;
 import net.ivang.axonix.main.events.facts.screen.LevelsScreenFact;
 import net.ivang.axonix.main.events.facts.screen.StartScreenFact;
+import net.ivang.axonix.main.events.intents.screen.EndlessModeIntent;
 import net.ivang.axonix.main.events.intents.screen.GameScreenIntent;
 import net.ivang.axonix.main.events.intents.screen.LevelsScreenIntent;
 import net.ivang.axonix.main.events.intents.screen.OptionsScreenIntent;
 import net.ivang.axonix.main.events.intents.screen.StartScreenIntent;
 import net.ivang.axonix.main.input.AxonixGameInputProcessor;
+import net.ivang.axonix.main.levels.LevelFiles;
 import net.ivang.axonix.main.screens.GameScreen;
 import net.ivang.axonix.main.screens.LevelsScreen;
 import net.ivang.axonix.main.screens.OptionsScreen;
@@ -43,9 +44,6 @@ import net.ivang.axonix.main.screens.StartScreen;
 import net.ivang.axonix.main.audio.music.MusicManager;
 import net.ivang.axonix.main.audio.sound.SoundManager;
 
-import java.util.Arrays;
-import java.util.List;
-
 /**
  * @author Ivan Gadzhega
  * @since 0.1
@@ -61,7 +59,7 @@ public class AxonixGame extends Game {
     @Inject private SoundManager soundManager;
 
     private Skin skin;
-    private List<FileHandle> levelsFiles;
+    private LevelFiles levels;
 
     private EventBus eventBus;
 
@@ -82,6 +80,21 @@ public class AxonixGame extends Game {
         eventBus.post(new StartScreenIntent());
     }
 
+    @Override
+    public void render() {
+        super.render();
+        float delta = Gdx.graphics.getDeltaTime();
+        musicManager.update(delta);
+        soundManager.update(delta);
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        musicManager.dispose();
+        soundManager.dispose();
+    }
+
     @Override
     public void setScreen(Screen screen) {
         throw new UnsupportedOperationException("Use intents instead of setting screens directly");
@@ -123,6 +136,14 @@ public class AxonixGame extends Game {
         eventBus.post(new GameScreenFact());
     }
 
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void setEndlessGameScreen(EndlessModeIntent intent) {
+        super.setScreen(gameScreen);
+        gameScreen.startEndless(intent.getSeed());
+        eventBus.post(new GameScreenFact());
+    }
+
     @Subscribe
     @SuppressWarnings("unused")
     public void catchDeadEvent(DeadEvent event) {
@@ -140,16 +161,15 @@ public class AxonixGame extends Game {
     }
 
     private void initLevels() {
-        FileHandle dirHandle = Gdx.files.internal("data/levels");
-        levelsFiles = Arrays.asList(dirHandle.list());
+        levels = new LevelFiles(Gdx.files.internal("data/levels"));
     }
 
     //---------------------------------------------------------------------
     // Getters & Setters
     //---------------------------------------------------------------------
 
-    public List<FileHandle> getLevelsFiles() {
-        return levelsFiles;
+    public LevelFiles getLevels() {
+        return levels;
     }
 
     public Skin getSkin() {
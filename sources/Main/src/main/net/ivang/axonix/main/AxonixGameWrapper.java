@@ -20,6 +20,8 @@ import com.badlogic.gdx.ApplicationListener;
 import com.google.common.eventbus.EventBus;
 import com.google.inject.Guice;
 import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.util.Modules;
 
 /**
  * @author Ivan Gadzhega
@@ -31,9 +33,18 @@ public class AxonixGameWrapper implements ApplicationListener {
     protected AxonixGame game;
     protected EventBus eventBus;
 
+    private final Module[] platformModules;
+
+    /**
+     * @param platformModules modules overriding the default bindings for the particular platform
+     */
+    public AxonixGameWrapper(Module... platformModules) {
+        this.platformModules = platformModules;
+    }
+
     @Override
     public void create() {
-        injector = Guice.createInjector(new AxonixModule());
+        injector = Guice.createInjector(Modules.override(new AxonixModule()).with(platformModules));
         game = injector.getInstance(AxonixGame.class);
         eventBus = injector.getInstance(EventBus.class);
         game.create();
@@ -25,6 +25,8 @@ import net.ivang.axonix.main.screens.GameScreen;
 import net.ivang.axonix.main.screens.LevelsScreen;
 import net.ivang.axonix.main.screens.StartScreen;
 import net.ivang.axonix.main.audio.music.MusicManager;
+import net.ivang.axonix.main.audio.sound.GdxSoundBackend;
+import net.ivang.axonix.main.audio.sound.SoundBackend;
 import net.ivang.axonix.main.audio.sound.SoundManager;
 
 /**
@@ -44,6 +46,7 @@ public class AxonixModule extends AbstractModule {
         // Input Multiplexer
         bind(InputMultiplexer.class).in(Singleton.class);
         // Audio
+        bind(SoundBackend.class).to(GdxSoundBackend.class).in(Singleton.class);
         bind(SoundManager.class).in(Singleton.class);
         bind(MusicManager.class).in(Singleton.class);
         // Preferences
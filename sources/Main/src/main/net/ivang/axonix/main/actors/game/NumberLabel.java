@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game;
+
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.utils.StringBuilder;
+
+/**
+ * Label showing an integer between a fixed prefix and suffix, e.g. "(45/80%)".
+ * The text is formatted into a reused buffer and set only when the value changes,
+ * so updating the label every frame neither produces garbage nor re-lays out the glyphs.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class NumberLabel extends Label {
+
+    private final StringBuilder text;
+    private final String prefix;
+    private final String suffix;
+
+    private int value;
+    private boolean valueSet;
+
+    public NumberLabel(LabelStyle style) {
+        this("", "", style);
+    }
+
+    public NumberLabel(String prefix, String suffix, LabelStyle style) {
+        super(null, style);
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.text = new StringBuilder(prefix.length() + suffix.length() + 11);
+    }
+
+    public void setValue(int value) {
+        if (valueSet && this.value == value) return;
+        this.value = value;
+        this.valueSet = true;
+        text.setLength(0);
+        text.append(prefix).append(value).append(suffix);
+        setText(text);
+    }
+
+    @Override
+    public void setText(CharSequence newText) {
+        // any other text makes the next value be formatted again
+        if (newText != text) valueSet = false;
+        super.setText(newText);
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+}
@@ -20,6 +20,8 @@ import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.utils.Array;
+import net.ivang.axonix.main.quality.QualityGovernor;
 
 /**
  * @author Ivan Gadzhega
@@ -31,16 +33,22 @@ public class Background extends Group {
     private final static byte ACTORS_NUM = 50;
     private final static int MAX_HEIGHT = 1080;
 
+    private Array<BackgroundFlare> flares;
+
     public Background(Skin skin) {
         // init flares
         TextureRegion texture = skin.getRegion(TEXTURE_FLARE);
+        flares = new Array<BackgroundFlare>(ACTORS_NUM);
         for (int i = 0; i < ACTORS_NUM; i++) {
-            addActor(new BackgroundFlare(texture));
+            BackgroundFlare flare = new BackgroundFlare(texture);
+            flares.add(flare);
+            addActor(flare);
         }
     }
 
     @Override
     public void act(float delta) {
+        updateFlaresNum();
         super.act(delta);
         update(false);
     }
@@ -58,4 +66,25 @@ public class Background extends Group {
         }
     }
 
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    /**
+     * Keeps only as many flares on the stage as the current quality allows.
+     * The returning flares appear at random positions, since they are moved out of the screen.
+     */
+    private void updateFlaresNum() {
+        int flaresNum = Math.round(ACTORS_NUM * QualityGovernor.getQuality().getFlaresRatio());
+        int shown = getChildren().size;
+        for (int i = shown - 1; i >= flaresNum; i--) {
+            flares.get(i).remove();
+        }
+        for (int i = shown; i < flaresNum; i++) {
+            BackgroundFlare flare = flares.get(i);
+            flare.setPosition(-flare.getWidth() - 1, -flare.getHeight() - 1);
+            addActor(flare);
+        }
+    }
+
 }
@@ -19,6 +19,7 @@ package net.ivang.axonix.main.actors.game.bar;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import net.ivang.axonix.main.actors.game.NumberLabel;
 
 /**
  * @author Ivan Gadzhega
@@ -26,28 +27,29 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
  */
 public class DebugBar extends Table {
 
-    private Label fpsLabel;
-    private Label sizeLabel;
+    private NumberLabel fpsLabel;
+    private NumberLabel widthLabel;
+    private NumberLabel heightLabel;
 
     public DebugBar(Style style) {
         this.setFillParent(true);
         this.right().top();
 
-        fpsLabel = new Label(null, style.labelStyle);
-        sizeLabel = new Label(null, style.labelStyle);
+        fpsLabel = new NumberLabel("", "fps", style.labelStyle);
+        widthLabel = new NumberLabel("", "x", style.labelStyle);
+        heightLabel = new NumberLabel(style.labelStyle);
 
         add(fpsLabel).padRight(5);
-        add(sizeLabel).padRight(5);
+        add(widthLabel);
+        add(heightLabel).padRight(5);
     }
 
     @Override
     public void act(float delta) {
         super.act(delta);
-        String fps = Integer.toString(Gdx.graphics.getFramesPerSecond());
-        String width = Integer.toString(Gdx.graphics.getWidth());
-        String height = Integer.toString(Gdx.graphics.getHeight());
-        fpsLabel.setText(fps + "fps");
-        sizeLabel.setText(width + "x" + height);
+        fpsLabel.setValue(Gdx.graphics.getFramesPerSecond());
+        widthLabel.setValue(Gdx.graphics.getWidth());
+        heightLabel.setValue(Gdx.graphics.getHeight());
     }
 
     //---------------------------------------------------------------------
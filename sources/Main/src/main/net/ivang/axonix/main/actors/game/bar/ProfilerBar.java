@@ -0,0 +1,92 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.bar;
+
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.utils.StringBuilder;
+import net.ivang.axonix.main.profiling.Profiler;
+
+/**
+ * Shows p50/p95/p99 of every profiled phase of the frame.
+ * The text is rebuilt in place twice per second, so the overlay does not produce garbage.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class ProfilerBar extends Table {
+
+    private static final float UPDATE_INTERVAL = 0.5f;
+
+    private final Profiler.Phase[] phases;
+    private final Label[] labels;
+    private final StringBuilder[] texts;
+
+    private float timeSinceUpdate;
+
+    public ProfilerBar(DebugBar.Style style) {
+        this.setFillParent(true);
+        this.left().bottom();
+
+        phases = Profiler.Phase.values();
+        labels = new Label[phases.length];
+        texts = new StringBuilder[phases.length];
+
+        for (int i = 0; i < phases.length; i++) {
+            texts[i] = new StringBuilder(64);
+            labels[i] = new Label(null, style.labelStyle);
+            add(labels[i]).left().padLeft(5);
+            row();
+        }
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        timeSinceUpdate += delta;
+        if (timeSinceUpdate >= UPDATE_INTERVAL) {
+            timeSinceUpdate = 0;
+            for (int i = 0; i < phases.length; i++) {
+                Profiler.Phase phase = phases[i];
+                StringBuilder text = texts[i];
+                text.setLength(0);
+                text.append(phase.getTitle());
+                appendMillis(text.append("  p50 "), Profiler.getPercentile(phase, 0.5f));
+                appendMillis(text.append("  p95 "), Profiler.getPercentile(phase, 0.95f));
+                appendMillis(text.append("  p99 "), Profiler.getPercentile(phase, 0.99f));
+                appendMillis(text.append("  max "), Profiler.getMax(phase));
+                labels[i].setText(text);
+            }
+        }
+    }
+
+    public void setStyle(DebugBar.Style style) {
+        for (Label label : labels) {
+            label.setStyle(style.labelStyle);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void appendMillis(StringBuilder text, float millis) {
+        int tenths = Math.round(millis * 10);
+        text.append(tenths / 10).append('.').append(tenths % 10);
+    }
+
+}
@@ -20,6 +20,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
+import net.ivang.axonix.main.actors.game.NumberLabel;
 import net.ivang.axonix.main.events.facts.LivesNumberFact;
 import net.ivang.axonix.main.events.facts.level.LevelIndexFact;
 import net.ivang.axonix.main.events.facts.level.LevelProgressFact;
@@ -32,15 +33,15 @@ import net.ivang.axonix.main.events.facts.level.LevelScoreFact;
 public class StatusBar extends Table {
 
     private Label livesLabel;
-    private Label livesValue;
+    private NumberLabel livesValue;
 
     private Label scoreLabel;
-    private Label scoreValue;
+    private NumberLabel scoreValue;
 
     private Label levelLabel;
-    private Label levelValue;
+    private NumberLabel levelValue;
 
-    private Label progress;
+    private NumberLabel progress;
 
     public StatusBar(EventBus eventBus, Style style) {
         eventBus.register(this);
@@ -49,10 +50,14 @@ public class StatusBar extends Table {
         scoreLabel = new Label("Score: ", style.label);
         levelLabel = new Label("Level: ", style.label);
 
-        livesValue = new Label("n/a", style.value);
-        scoreValue = new Label("n/a", style.value);
-        levelValue = new Label("n/a", style.value);
-        progress = new Label("n/a", style.value);
+        livesValue = new NumberLabel(style.value);
+        scoreValue = new NumberLabel(style.value);
+        levelValue = new NumberLabel(style.value);
+        progress = new NumberLabel("(", "/80%)", style.value);
+        livesValue.setText("n/a");
+        scoreValue.setText("n/a");
+        levelValue.setText("n/a");
+        progress.setText("n/a");
 
         // lives
         add(livesLabel).padLeft(5);
@@ -90,29 +95,25 @@ public class StatusBar extends Table {
     @Subscribe
     @SuppressWarnings("unused")
     public void onLivesNumberChange(LivesNumberFact fact) {
-        String lives = Integer.toString(fact.getLivesNumber());
-        livesValue.setText(lives);
+        livesValue.setValue(fact.getLivesNumber());
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onLevelScoreChange(LevelScoreFact fact) {
-        String score = Integer.toString(fact.getScore());
-        scoreValue.setText(score);
+        scoreValue.setValue(fact.getScore());
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onLevelLoad(LevelIndexFact fact) {
-        String level = Integer.toString(fact.getLevelIndex());
-        levelValue.setText(level);
+        levelValue.setValue(fact.getLevelIndex());
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onLevelProgressChange(LevelProgressFact fact) {
-        String percent = Byte.toString(fact.getPercentComplete());
-        progress.setText("(" + percent + "/80%)");
+        progress.setValue(fact.getPercentComplete());
     }
 
     //---------------------------------------------------------------------
@@ -18,6 +18,7 @@ package net.ivang.axonix.main.actors.game.dialog;
 
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import net.ivang.axonix.main.actors.game.NumberLabel;
 
 /**
  * @author Ivan Gadzhega
@@ -25,14 +26,14 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
  */
 public class DialogScoresTable extends Table {
 
-    private Label levelScoreLabel, levelScoreValue;
-    private Label totalScoreLabel, totalScoreValue;
+    private Label levelScoreLabel, totalScoreLabel;
+    private NumberLabel levelScoreValue, totalScoreValue;
 
     public DialogScoresTable(Style style) {
         levelScoreLabel = new Label("Level Score: ", style.label);
         totalScoreLabel = new Label("Total Score: ", style.label);
-        levelScoreValue = new Label(null, style.value);
-        totalScoreValue = new Label(null, style.value);
+        levelScoreValue = new NumberLabel(style.value);
+        totalScoreValue = new NumberLabel(style.value);
 
         add(levelScoreLabel).right();
         add(levelScoreValue).left();
@@ -49,11 +50,11 @@ public class DialogScoresTable extends Table {
     }
 
     public void setLevelScore(int score) {
-        levelScoreValue.setText(Integer.toString(score));
+        levelScoreValue.setValue(score);
     }
 
     public void setTotalScore(int score) {
-        totalScoreValue.setText(Integer.toString(score));
+        totalScoreValue.setValue(score);
     }
 
     //---------------------------------------------------------------------
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+/**
+ * Boundary contours between the empty and the non-empty cells, kept as a lattice
+ * of cell corners. Every corner stores which of its four adjacent cells are solid,
+ * which is enough to tell where a wall-follower goes next. Cell changes update
+ * only the four corners of the cell.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+class ContourGraph {
+
+    // directions in the clockwise order
+    static final int UP = 0;
+    static final int RIGHT = 1;
+    static final int DOWN = 2;
+    static final int LEFT = 3;
+
+    static final int[] DIRECTION_X = {0, 1, 0, -1};
+    static final int[] DIRECTION_Y = {1, 0, -1, 0};
+
+    // corner bits: lower-left, lower-right, upper-left, upper-right cell
+    private static final int SW = 0, SE = 1, NW = 2, NE = 3;
+
+    // front-left, front-right, back-left and back-right cells of a corner for each heading
+    private static final int[][] CORNER_CELLS = {
+            {NW, NE, SW, SE},
+            {NE, SE, NW, SW},
+            {SE, SW, NE, NW},
+            {SW, NW, SE, NE}
+    };
+
+    private static final byte[] TURNS = createTurns();
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final byte[] corners;
+    private int version;
+
+    ContourGraph(Level level) {
+        this.level = level;
+        this.width = (int) level.getMapWidth();
+        this.height = (int) level.getMapHeight();
+        this.corners = new byte[(width + 1) * (height + 1)];
+        for (int x = 0; x <= width; x++) {
+            for (int y = 0; y <= height; y++) {
+                updateCorner(x, y);
+            }
+        }
+    }
+
+    /**
+     * Should be called whenever the cell at (x, y) becomes empty or stops being empty.
+     */
+    void update(int x, int y) {
+        updateCorner(x, y);
+        updateCorner(x + 1, y);
+        updateCorner(x, y + 1);
+        updateCorner(x + 1, y + 1);
+        version++;
+    }
+
+    /**
+     * @return the direction a wall-follower takes at the corner (x, y) when coming with the given heading;
+     * clockwise followers keep the wall on the left, counter-clockwise ones on the right
+     */
+    int getTurn(int x, int y, int direction, boolean clockwise) {
+        if (x < 0 || y < 0 || x > width || y > height) {
+            return direction;
+        }
+        return TURNS[(corners[x * (height + 1) + y] << 3) | (direction << 1) | (clockwise ? 1 : 0)];
+    }
+
+    /**
+     * @return distance from the corner (x, y) to the next turn in the given direction
+     */
+    int getSegmentLength(int x, int y, int direction, boolean clockwise) {
+        int dx = DIRECTION_X[direction];
+        int dy = DIRECTION_Y[direction];
+        int maxLength = Math.max(width, height) + 1;
+        int length = 1;
+        while (length < maxLength && getTurn(x + dx * length, y + dy * length, direction, clockwise) == direction) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Grows on every change, so the followers know when to re-check their segments.
+     */
+    int getVersion() {
+        return version;
+    }
+
+    static int turnLeft(int direction) {
+        return (direction + 3) % 4;
+    }
+
+    static int turnRight(int direction) {
+        return (direction + 1) % 4;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void updateCorner(int x, int y) {
+        if (x < 0 || y < 0 || x > width || y > height) return;
+        int mask = 0;
+        if (isSolid(x - 1, y - 1)) mask |= 1 << SW;
+        if (isSolid(x, y - 1)) mask |= 1 << SE;
+        if (isSolid(x - 1, y)) mask |= 1 << NW;
+        if (isSolid(x, y)) mask |= 1 << NE;
+        corners[x * (height + 1) + y] = (byte) mask;
+    }
+
+    private boolean isSolid(int x, int y) {
+        return x < 0 || y < 0 || x >= width || y >= height || !level.getBlock(x, y).isEmpty();
+    }
+
+    private static byte[] createTurns() {
+        byte[] turns = new byte[16 * 8];
+        for (int mask = 0; mask < 16; mask++) {
+            for (int direction = 0; direction < 4; direction++) {
+                int[] cells = CORNER_CELLS[direction];
+                boolean frontLeft = (mask & (1 << cells[0])) != 0;
+                boolean frontRight = (mask & (1 << cells[1])) != 0;
+                boolean backLeft = (mask & (1 << cells[2])) != 0;
+                boolean backRight = (mask & (1 << cells[3])) != 0;
+                // clockwise: wall on the left
+                int turn = direction;
+                if (frontRight) {
+                    turn = turnRight(direction);
+                } else if (!frontLeft && backLeft) {
+                    turn = turnLeft(direction);
+                }
+                turns[(mask << 3) | (direction << 1) | 1] = (byte) turn;
+                // counter-clockwise: wall on the right
+                turn = direction;
+                if (frontLeft) {
+                    turn = turnLeft(direction);
+                } else if (!frontRight && backRight) {
+                    turn = turnRight(direction);
+                }
+                turns[(mask << 3) | (direction << 1)] = (byte) turn;
+            }
+        }
+        return turns;
+    }
+
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import static net.ivang.axonix.main.actors.game.level.ContourGraph.DIRECTION_X;
+import static net.ivang.axonix.main.actors.game.level.ContourGraph.DIRECTION_Y;
+
+/**
+ * Positions of the crawling enemies on the contour graph. Each follower moves along
+ * a straight segment between two turns, which is looked up once, and keeps half a cell
+ * away from the wall. At the corners the path is cut or extended by that distance,
+ * so it stays continuous.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+class ContourWalkers {
+
+    // distance from the wall: half a cell, so the followers walk the centers of the cells along it
+    private static final float OFFSET = 0.5f;
+
+    private final ContourGraph graph;
+
+    private int[] cornerX;
+    private int[] cornerY;
+    private int[] direction;
+    private int[] nextDirection;
+    private int[] length;
+    private int[] version;
+    private float[] position;
+    private float[] endOffset;
+    private boolean[] clockwise;
+
+    ContourWalkers(ContourGraph graph, int capacity) {
+        this.graph = graph;
+        this.cornerX = new int[capacity];
+        this.cornerY = new int[capacity];
+        this.direction = new int[capacity];
+        this.nextDirection = new int[capacity];
+        this.length = new int[capacity];
+        this.version = new int[capacity];
+        this.position = new float[capacity];
+        this.endOffset = new float[capacity];
+        this.clockwise = new boolean[capacity];
+    }
+
+    /**
+     * Snaps the follower at (x, y) to the closest grid line on its wall side.
+     */
+    void attach(int i, float x, float y, float directionX, float directionY, boolean clockwise) {
+        int dir = (directionY > 0) ? ContourGraph.UP
+                : (directionX > 0) ? ContourGraph.RIGHT
+                : (directionY < 0) ? ContourGraph.DOWN
+                : ContourGraph.LEFT;
+        int normal = getNormal(dir, clockwise);
+        // the wall side line across the movement, the last passed corner along it
+        int cx, cy;
+        float along;
+        if (DIRECTION_X[dir] != 0) {
+            cy = (DIRECTION_Y[normal] > 0) ? (int) Math.floor(y) : (int) Math.floor(y) + 1;
+            cx = (DIRECTION_X[dir] > 0) ? (int) Math.floor(x) : (int) Math.floor(x) + 1;
+            along = Math.abs(x - cx);
+        } else {
+            cx = (DIRECTION_X[normal] > 0) ? (int) Math.floor(x) : (int) Math.floor(x) + 1;
+            cy = (DIRECTION_Y[dir] > 0) ? (int) Math.floor(y) : (int) Math.floor(y) + 1;
+            along = Math.abs(y - cy);
+        }
+        this.clockwise[i] = clockwise;
+        this.cornerX[i] = cx;
+        this.cornerY[i] = cy;
+        this.direction[i] = dir;
+        this.position[i] = along;
+        findSegment(i);
+    }
+
+    /**
+     * Moves the follower to the end of its current segment at most, turning there.
+     *
+     * @return the distance actually moved
+     */
+    float advance(int i, float distance) {
+        if (version[i] != graph.getVersion()) {
+            resync(i);
+        }
+        float remaining = length[i] + endOffset[i] - position[i];
+        if (distance < remaining) {
+            position[i] += distance;
+            return distance;
+        }
+        // turn at the end of the segment
+        int dir = direction[i];
+        int next = nextDirection[i];
+        cornerX[i] += DIRECTION_X[dir] * length[i];
+        cornerY[i] += DIRECTION_Y[dir] * length[i];
+        position[i] = OFFSET * dot(getNormal(dir, clockwise[i]), next);
+        direction[i] = next;
+        findSegment(i);
+        return Math.max(remaining, 0);
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    /**
+     * The contours have changed: looks up the segment again from the last passed corner.
+     * The lookup starts one corner short of the turn at most, so a follower already past
+     * the turning corner, at an outer corner, still checks the turn there. If the wall
+     * along the passed corner is gone, the follower takes the turn there instead.
+     */
+    private void resync(int i) {
+        int dir = direction[i];
+        int passed = Math.max(0, Math.min((int) Math.floor(position[i]), length[i] - 1));
+        cornerX[i] += DIRECTION_X[dir] * passed;
+        cornerY[i] += DIRECTION_Y[dir] * passed;
+        position[i] -= passed;
+        int turn = graph.getTurn(cornerX[i], cornerY[i], dir, clockwise[i]);
+        if (turn != dir) {
+            position[i] = OFFSET * dot(getNormal(dir, clockwise[i]), turn);
+            direction[i] = turn;
+        }
+        findSegment(i);
+        // the segment may have become shorter than the distance already moved
+        position[i] = Math.min(position[i], length[i] + endOffset[i]);
+    }
+
+    private void findSegment(int i) {
+        int dir = direction[i];
+        boolean cw = clockwise[i];
+        int segment = graph.getSegmentLength(cornerX[i], cornerY[i], dir, cw);
+        int next = graph.getTurn(cornerX[i] + DIRECTION_X[dir] * segment, cornerY[i] + DIRECTION_Y[dir] * segment, dir, cw);
+        length[i] = segment;
+        nextDirection[i] = next;
+        endOffset[i] = OFFSET * dot(getNormal(next, cw), dir);
+        version[i] = graph.getVersion();
+    }
+
+    /**
+     * @return direction from the wall towards the free space
+     */
+    private static int getNormal(int direction, boolean clockwise) {
+        return clockwise ? ContourGraph.turnRight(direction) : ContourGraph.turnLeft(direction);
+    }
+
+    private static int dot(int a, int b) {
+        return DIRECTION_X[a] * DIRECTION_X[b] + DIRECTION_Y[a] * DIRECTION_Y[b];
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    float getX(int i) {
+        int dir = direction[i];
+        int normal = getNormal(dir, clockwise[i]);
+        return cornerX[i] + DIRECTION_X[dir] * position[i] + DIRECTION_X[normal] * OFFSET;
+    }
+
+    float getY(int i) {
+        int dir = direction[i];
+        int normal = getNormal(dir, clockwise[i]);
+        return cornerY[i] + DIRECTION_Y[dir] * position[i] + DIRECTION_Y[normal] * OFFSET;
+    }
+
+    float getDirectionX(int i) {
+        return DIRECTION_X[direction[i]];
+    }
+
+    float getDirectionY(int i) {
+        return DIRECTION_Y[direction[i]];
+    }
+
+}
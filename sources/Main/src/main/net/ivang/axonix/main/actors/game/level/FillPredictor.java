@@ -0,0 +1,320 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds the areas which would be fenced if the protagonist closed the tail right now.
+ * While the tail is being drawn, the areas are labeled on a background thread from
+ * a snapshot of the map, so that the closing frame only has to validate the tail blocks
+ * added after the snapshot was taken.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+class FillPredictor {
+
+    static final int NONE = 0;
+
+    // shared by all the levels, only one of them is played at a time
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("fill-predictor-%d").setDaemon(true).build());
+
+    private final Level level;
+    private final int width;
+    private final int height;
+
+    // cells which could be filled, mirrored from the blocks on the rendering thread
+    private final boolean[] open;
+    // changed on every modification of the map except the growth of the tail
+    private int version;
+
+    private Future<Areas> pending;
+    private int pendingVersion;
+    private Areas ready;
+    private Areas spare;
+
+    private final IntArray dirtyAreas;
+    private final IntArray dirtyCells;
+
+    FillPredictor(Level level) {
+        this.level = level;
+        this.width = (int) level.getMapWidth();
+        this.height = (int) level.getMapHeight();
+        this.open = new boolean[width * height];
+        this.dirtyAreas = new IntArray();
+        this.dirtyCells = new IntArray();
+        resync();
+    }
+
+    /**
+     * Records the change of the block at (x, y).
+     */
+    void update(int x, int y, boolean empty) {
+        open[x * height + y] = empty && isInner(x, y);
+        version++;
+    }
+
+    /**
+     * Records the new tail block at (x, y). Unlike the other changes, it does not
+     * invalidate the prediction, but is validated when the areas are taken.
+     */
+    void grow(int x, int y) {
+        open[x * height + y] = false;
+    }
+
+    /**
+     * Starts labeling the areas in background, unless the previous prediction
+     * is still in progress.
+     */
+    void predict(int tailLength) {
+        collect(false);
+        if (pending != null) return;
+        Areas areas = (spare != null) ? spare : new Areas(width, height);
+        spare = null;
+        System.arraycopy(open, 0, areas.open, 0, open.length);
+        areas.version = version;
+        areas.tailLength = tailLength;
+        pendingVersion = version;
+        pending = EXECUTOR.submit(areas);
+    }
+
+    /**
+     * Returns the areas of the current map fenced by the given tail. Uses the prediction
+     * if it is still valid, relabeling only the areas crossed by the newer tail blocks,
+     * otherwise labels the whole map on the calling thread.
+     * The returned areas are valid until the map is changed.
+     */
+    Areas takeAreas(Tail tail) {
+        // wait for the prediction only if it is going to be used
+        collect(pending != null && pendingVersion == version);
+        Areas areas;
+        if (ready != null && ready.version == version && ready.tailLength <= tail.size()) {
+            areas = ready;
+            relabel(areas, tail);
+        } else {
+            areas = (ready != null) ? ready : (spare != null) ? spare : new Areas(width, height);
+            resync();
+            System.arraycopy(open, 0, areas.open, 0, open.length);
+            areas.label();
+            ready = areas;
+        }
+        // the tail is going to be converted, the prediction cannot be used again
+        version++;
+        return areas;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void collect(boolean wait) {
+        if (pending == null || (!wait && !pending.isDone())) return;
+        try {
+            Areas areas = pending.get();
+            if (ready != null) spare = ready;
+            ready = areas;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Unable to predict filled areas", e.getCause());
+        } finally {
+            pending = null;
+        }
+    }
+
+    /**
+     * Splits the predicted areas crossed by the tail blocks added after the snapshot.
+     */
+    private void relabel(Areas areas, Tail tail) {
+        for (int i = areas.tailLength; i < tail.size(); i++) {
+            int cell = tail.getCell(i);
+            int area = areas.labels[cell];
+            if (area != NONE && !dirtyAreas.contains(area)) {
+                dirtyAreas.add(area);
+            }
+            areas.open[cell] = false;
+            areas.labels[cell] = NONE;
+        }
+        for (int i = 0; i < dirtyAreas.size; i++) {
+            int area = dirtyAreas.get(i);
+            int start = areas.getStart(area);
+            int end = areas.getEnd(area);
+            for (int j = start; j < end; j++) {
+                int cell = areas.cells[j];
+                areas.labels[cell] = NONE;
+                dirtyCells.add(cell);
+            }
+            areas.exclude(area);
+            // the parts are not larger than the whole, so they take its place
+            int write = start;
+            for (int j = 0; j < dirtyCells.size; j++) {
+                int cell = dirtyCells.get(j);
+                if (areas.open[cell] && areas.labels[cell] == NONE) {
+                    write = areas.flood(cell, write);
+                }
+            }
+            dirtyCells.clear();
+        }
+        dirtyAreas.clear();
+        areas.tailLength = tail.size();
+    }
+
+    private void resync() {
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                open[x * height + y] = level.getBlock(x, y).isEmpty() && isInner(x, y);
+            }
+        }
+    }
+
+    private boolean isInner(int x, int y) {
+        return x > 0 && y > 0 && x < width - 1 && y < height - 1;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    /**
+     * Connected areas of the open cells. The cells of every area are stored
+     * together, so an area is a range of indices in the common list.
+     */
+    static class Areas implements Callable<Areas> {
+        private final int height;
+        private final boolean[] open;
+        private final int[] labels;
+        private final int[] cells;
+        // ranges of the areas, indexed by the area label - 1
+        private final IntArray starts;
+        private final IntArray ends;
+
+        private int version;
+        private int tailLength;
+
+        private Areas(int width, int height) {
+            this.height = height;
+            this.open = new boolean[width * height];
+            this.labels = new int[width * height];
+            this.cells = new int[width * height];
+            this.starts = new IntArray();
+            this.ends = new IntArray();
+        }
+
+        @Override
+        public Areas call() {
+            label();
+            return this;
+        }
+
+        /**
+         * @return the number of labels given, including the excluded areas
+         */
+        int size() {
+            return starts.size;
+        }
+
+        /**
+         * @return the label of the area containing the cell at (x, y),
+         * or {@link #NONE} if the cell cannot be filled
+         */
+        int getArea(int x, int y) {
+            return labels[x * height + y];
+        }
+
+        int getStart(int area) {
+            return starts.get(area - 1);
+        }
+
+        int getEnd(int area) {
+            return ends.get(area - 1);
+        }
+
+        /**
+         * @return the map cell (x * map height + y) with the given index
+         */
+        int getCell(int index) {
+            return cells[index];
+        }
+
+        /**
+         * Empties the area, so it is not going to be filled.
+         */
+        void exclude(int area) {
+            if (area != NONE) {
+                ends.set(area - 1, starts.get(area - 1));
+            }
+        }
+
+        //---------------------------------------------------------------------
+        // Helper methods
+        //---------------------------------------------------------------------
+
+        private void label() {
+            Arrays.fill(labels, NONE);
+            starts.clear();
+            ends.clear();
+            int size = 0;
+            for (int cell = 0; cell < open.length; cell++) {
+                if (open[cell] && labels[cell] == NONE) {
+                    size = flood(cell, size);
+                }
+            }
+        }
+
+        /**
+         * Labels the area containing the given cell, storing its cells from the given index on.
+         * The outer cells are never open, so the neighbours of an open cell are always on the map.
+         *
+         * @return the index following the last cell of the area
+         */
+        private int flood(int seed, int index) {
+            int area = starts.size + 1;
+            starts.add(index);
+            labels[seed] = area;
+            cells[index] = seed;
+            int end = index + 1;
+            for (int i = index; i < end; i++) {
+                int cell = cells[i];
+                end = visit(cell - height, area, end);
+                end = visit(cell + height, area, end);
+                end = visit(cell - 1, area, end);
+                end = visit(cell + 1, area, end);
+            }
+            ends.add(end);
+            return end;
+        }
+
+        private int visit(int cell, int area, int end) {
+            if (open[cell] && labels[cell] == NONE) {
+                labels[cell] = area;
+                cells[end++] = cell;
+            }
+            return end;
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import net.ivang.axonix.main.actors.game.level.blocks.Block;
+
+/**
+ * Sweeps a moving circle through the level grid and finds the earliest contact
+ * with a non-empty block. The cells crossed by the circle center are walked
+ * with a DDA, so the result does not depend on the length of the step.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+class GridSweep {
+
+    private static final float EPSILON = 1e-4f;
+
+    private final Level level;
+
+    // results of the last sweep
+    private float distance;
+    private boolean hitX;
+    private boolean hitY;
+    private Block[] hitBlocks;
+    private int hitBlocksNum;
+
+    // contact of the last tested block
+    private boolean contactX;
+    private boolean contactY;
+
+    GridSweep(Level level) {
+        this.level = level;
+        this.hitBlocks = new Block[9];
+    }
+
+    /**
+     * Moves a circle from (x, y) along the unit direction (dirX, dirY)
+     * for at most the given distance.
+     *
+     * @return true if a block was hit on the way
+     */
+    boolean sweep(float x, float y, float radius, float dirX, float dirY, float maxDistance) {
+        distance = maxDistance;
+        hitX = hitY = false;
+        hitBlocksNum = 0;
+
+        int cellX = (int) Math.floor(x);
+        int cellY = (int) Math.floor(y);
+        int stepX = (dirX > 0) ? 1 : -1;
+        int stepY = (dirY > 0) ? 1 : -1;
+        float deltaX = (dirX != 0) ? Math.abs(1 / dirX) : Float.POSITIVE_INFINITY;
+        float deltaY = (dirY != 0) ? Math.abs(1 / dirY) : Float.POSITIVE_INFINITY;
+        float nextX = (dirX != 0) ? ((dirX > 0) ? cellX + 1 - x : x - cellX) * deltaX : Float.POSITIVE_INFINITY;
+        float nextY = (dirY != 0) ? ((dirY > 0) ? cellY + 1 - y : y - cellY) * deltaY : Float.POSITIVE_INFINITY;
+        float enter = 0;
+
+        // a contact at the distance t happens while the center is in a cell adjacent to the block,
+        // so once the center enters cells beyond the best contact nothing earlier can be found
+        while (enter <= distance) {
+            for (int i = cellX - 1; i <= cellX + 1; i++) {
+                for (int j = cellY - 1; j <= cellY + 1; j++) {
+                    testBlock(i, j, x, y, radius, dirX, dirY);
+                }
+            }
+            if (nextX < nextY) {
+                enter = nextX;
+                nextX += deltaX;
+                cellX += stepX;
+            } else {
+                enter = nextY;
+                nextY += deltaY;
+                cellY += stepY;
+            }
+        }
+
+        return hitBlocksNum > 0;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void testBlock(int i, int j, float x, float y, float radius, float dirX, float dirY) {
+        if (i < 0 || j < 0 || i >= level.getMapWidth() || j >= level.getMapHeight()) return;
+        Block block = level.getBlock(i, j);
+        if (block.isEmpty()) return;
+
+        float t = timeOfImpact(i, j, x, y, radius, dirX, dirY);
+        if (t < 0 || t > distance + EPSILON) return;
+
+        if (t < distance - EPSILON) {
+            distance = t;
+            hitX = hitY = false;
+            hitBlocksNum = 0;
+        }
+        for (int k = 0; k < hitBlocksNum; k++) {
+            if (hitBlocks[k] == block) return;
+        }
+        hitBlocks[hitBlocksNum++] = block;
+        hitX |= contactX;
+        hitY |= contactY;
+    }
+
+    /**
+     * @return distance to the first contact with the unit cell at (i, j), or -1 if there is none
+     */
+    private float timeOfImpact(int i, int j, float x, float y, float r, float dirX, float dirY) {
+        // already touching: only matters when moving further in
+        float nearX = Math.max(i, Math.min(x, i + 1));
+        float nearY = Math.max(j, Math.min(y, j + 1));
+        float dx = x - nearX;
+        float dy = y - nearY;
+        if (dx * dx + dy * dy < r * r) {
+            if (dx * dirX + dy * dirY >= 0 && (dx != 0 || dy != 0)) return -1;
+            setContact(dx, dy, dirX, dirY);
+            return 0;
+        }
+
+        float best = -1;
+        // faces of the box expanded by the radius
+        if (dirX != 0) {
+            float face = (dirX > 0) ? i - r : i + 1 + r;
+            float t = (face - x) / dirX;
+            float cy = y + dirY * t;
+            if (t >= 0 && cy >= j && cy <= j + 1) {
+                best = t;
+                contactX = true;
+                contactY = false;
+            }
+        }
+        if (dirY != 0) {
+            float face = (dirY > 0) ? j - r : j + 1 + r;
+            float t = (face - y) / dirY;
+            float cx = x + dirX * t;
+            if (t >= 0 && cx >= i && cx <= i + 1 && (best < 0 || t < best)) {
+                best = t;
+                contactX = false;
+                contactY = true;
+            }
+        }
+        // rounded corners
+        for (int cornerX = i; cornerX <= i + 1; cornerX++) {
+            for (int cornerY = j; cornerY <= j + 1; cornerY++) {
+                float px = x - cornerX;
+                float py = y - cornerY;
+                float b = px * dirX + py * dirY;
+                float c = px * px + py * py - r * r;
+                float discriminant = b * b - c;
+                if (discriminant < 0) continue;
+                float t = -b - (float) Math.sqrt(discriminant);
+                if (t < 0 || (best >= 0 && t >= best)) continue;
+                float hx = px + dirX * t;
+                float hy = py + dirY * t;
+                // only the outer quadrant of the corner, the rest is covered by the faces
+                boolean outsideX = (cornerX == i) ? hx < 0 : hx > 0;
+                boolean outsideY = (cornerY == j) ? hy < 0 : hy > 0;
+                if (outsideX && outsideY) {
+                    best = t;
+                    setContact(hx, hy, dirX, dirY);
+                }
+            }
+        }
+        return best;
+    }
+
+    private void setContact(float normalX, float normalY, float dirX, float dirY) {
+        if (normalX == 0 && normalY == 0) {
+            // the center is inside the block, just turn back
+            contactX = dirX != 0;
+            contactY = dirY != 0;
+        } else {
+            // hitting a corner reverses both components, like it always did for diagonal movement
+            contactX = normalX != 0 && normalX * dirX < 0;
+            contactY = normalY != 0 && normalY * dirY < 0;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    /**
+     * @return distance travelled until the contact, or the whole distance if nothing was hit
+     */
+    float getDistance() {
+        return distance;
+    }
+
+    boolean isHitX() {
+        return hitX;
+    }
+
+    boolean isHitY() {
+        return hitY;
+    }
+
+    int getHitBlocksNum() {
+        return hitBlocksNum;
+    }
+
+    Block getHitBlock(int index) {
+        return hitBlocks[index];
+    }
+
+}
@@ -16,25 +16,31 @@
 
 package net.ivang.axonix.main.actors.game.level;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.*;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Group;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.utils.ScissorStack;
+import com.badlogic.gdx.utils.SnapshotArray;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import net.ivang.axonix.main.actors.game.level.blocks.Block;
+import net.ivang.axonix.main.actors.game.level.blocks.BlockDescriptors;
 import net.ivang.axonix.main.actors.game.level.blocks.BlocksParticlesHolder;
+import net.ivang.axonix.main.actors.game.level.blocks.FillAnimation;
 import net.ivang.axonix.main.actors.game.level.bonuses.Bonus;
 import net.ivang.axonix.main.actors.game.level.bonuses.LifeBonus;
 import net.ivang.axonix.main.actors.game.level.bonuses.SlowBonus;
 import net.ivang.axonix.main.actors.game.level.bonuses.SpeedBonus;
-import net.ivang.axonix.main.actors.game.level.enemies.BlueEnemy;
-import net.ivang.axonix.main.actors.game.level.enemies.Enemy;
-import net.ivang.axonix.main.actors.game.level.enemies.PurpleEnemy;
-import net.ivang.axonix.main.actors.game.level.enemies.RedEnemy;
+import net.ivang.axonix.main.actors.game.level.enemies.EnemySystem;
+import net.ivang.axonix.main.actors.game.level.enemies.EnemyType;
+import net.ivang.axonix.main.effects.EffectScheduler;
 import net.ivang.axonix.main.events.facts.EnemyBounceFact;
 import net.ivang.axonix.main.events.facts.ObtainedPointsFact;
 import net.ivang.axonix.main.events.facts.TailBlockFact;
@@ -43,10 +49,10 @@ import net.ivang.axonix.main.events.facts.level.LevelScoreFact;
 import net.ivang.axonix.main.events.intents.game.DestroyBlockIntent;
 import net.ivang.axonix.main.events.intents.game.LevelScoreIntent;
 import net.ivang.axonix.main.events.intents.game.NotificationIntent;
+import net.ivang.axonix.main.profiling.Profiler;
+import net.ivang.axonix.main.quality.QualityGovernor;
 import net.ivang.axonix.main.screens.GameScreen;
 
-import java.util.*;
-
 import static net.ivang.axonix.main.actors.game.KinematicActor.Direction;
 import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
 
@@ -54,7 +60,14 @@ import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
  * @author Ivan Gadzhega
  * @since 0.1
  */
-public class Level extends Group {
+public class Level extends Group implements LevelView {
+
+    private static final int MAX_BOUNCES_PER_STEP = 4;
+    private static final int MAX_TURNS_PER_STEP = 8;
+    private static final float CENTER_EPSILON = 0.001f;
+    // extra cells around the view, so that the particles do not pop in at the edges
+    private static final float CULLING_MARGIN = 2;
+    private static final Vector2[] CHASE_DIRECTIONS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
 
     private State state;
     private EventBus eventBus;
@@ -67,129 +80,234 @@ public class Level extends Group {
     private int score;
     private byte percentComplete;
     private int filledBlocks;
+    // the inner blocks which were empty initially
+    private int fillableBlocks;
 
     private Protagonist protagonist;
-    private List<Enemy> enemies;
-    private List<Block> tailBlocks;
+    private EnemySystem enemies;
+    private EffectScheduler effects;
+    private Tail tail;
+    private FillPredictor fills;
     private Group bonuses;
     private BlocksParticlesHolder blocksParticles;
+    private FillAnimation fillAnimation;
 
-    private boolean containsRedBlocks;
     private float redBlocksDelta;
 
     private Skin skin;
 
+    private GridSweep gridSweep;
+    private Circle enemyCircle;
+    private Vector2 bounceDirection;
+    private EnemyBounceFact bounceFact;
+    private ContourGraph contours;
+    private ContourWalkers walkers;
+    private TailDistanceField tailDistances;
+
+    private OrthographicCamera camera;
+    private float cellSize;
+    private Rectangle cullingArea;
+    private Rectangle widgetArea;
+    private Rectangle windowArea;
+    private Matrix4 stageProjection;
+    private Matrix4 stageTransform;
+    private Matrix4 identity;
+
+    /**
+     * Builds the level structure from the given pixmap. Does not touch the event bus,
+     * so it is safe to be called outside of the rendering thread.
+     * Call {@link #register()} before the level is shown.
+     */
     @Inject
     public Level(int levelIndex, Pixmap pixmap, Skin skin, EventBus eventBus) {
-        // register with the event bus
         this.eventBus = eventBus;
-        eventBus.register(this);
-
         this.skin = skin;
         this.mapWidth = pixmap.getWidth();
         this.mapHeight = pixmap.getHeight();
         this.levelMap = new Block[mapWidth][mapHeight];
-        this.tailBlocks = new ArrayList<Block>();
-        this.enemies = new ArrayList<Enemy>();
+        this.effects = new EffectScheduler();
+        this.enemies = new EnemySystem(skin, effects);
+        this.gridSweep = new GridSweep(this);
+        this.enemyCircle = new Circle();
+        this.bounceDirection = new Vector2();
+        this.bounceFact = new EnemyBounceFact(bounceDirection);
         this.bonuses = new Group();
-        this.blocksParticles = new BlocksParticlesHolder(skin, eventBus);
+        this.blocksParticles = new BlocksParticlesHolder(skin);
+        this.camera = new OrthographicCamera();
+        this.cellSize = 1;
+        this.cullingArea = new Rectangle();
+        this.widgetArea = new Rectangle();
+        this.windowArea = new Rectangle();
+        this.stageProjection = new Matrix4();
+        this.stageTransform = new Matrix4();
+        this.identity = new Matrix4();
 
         initFromPixmap(pixmap);
+        this.tail = new Tail(this);
+        this.fills = new FillPredictor(this);
+        initContours();
 
         addActor(blocksParticles);
         addActor(bonuses);
 
-        setScore(0);
-        updateLevelProgress(0);
+        enemies.setCullingArea(cullingArea);
+        fillAnimation.setCullingArea(cullingArea);
+        bonuses.setCullingArea(cullingArea);
+        bonuses.setTransform(false);
 
         this.levelIndex = levelIndex;
-        String level = Integer.toString(levelIndex);
-        showNotification("Level " + level + ". Go-go-go!", 0.25f, 1.5f);
     }
 
     private void initFromPixmap(Pixmap pixmap) {
-        final int BLOCK_BLUE_HARD = 0x000055;
-        final int ENEMY_RED = 0xFF0000;
-        final int ENEMY_PURPLE = 0xFF00FF;
-        final int ENEMY_BLUE_U = 0x0000FC;
-        final int ENEMY_BLUE_R = 0x0000FD;
-        final int ENEMY_BLUE_D = 0x0000FE;
-        final int ENEMY_BLUE_L = 0x0000FF;
-        final int PROTAGONIST = 0x00FF00;
-
+        BlockDescriptors descriptors = BlockDescriptors.forSkin(skin);
         for (int x = 0; x < mapWidth; x++) {
             for (int y = 0; y < mapHeight; y++) {
                 int pix = (pixmap.getPixel(x, mapHeight-y-1) >>> 8) & 0xffffff;
 
                 switch (pix) {
-                    case BLOCK_BLUE_HARD:
-                    case PROTAGONIST:
-                        levelMap[x][y] = new Block(x, y, Type.BLUE_HARD, skin);
+                    case MapColors.BLOCK_BLUE_HARD:
+                    case MapColors.PROTAGONIST:
+                        levelMap[x][y] = new Block(x, y, Type.BLUE_HARD, descriptors);
                         break;
                     default:
-                        levelMap[x][y] = new Block(x, y, Type.EMPTY, skin);
+                        levelMap[x][y] = new Block(x, y, Type.EMPTY, descriptors);
+                        if (x > 0 && y > 0 && x < mapWidth - 1 && y < mapHeight - 1) {
+                            fillableBlocks++;
+                        }
                         break;
                 }
 
-                addActor(levelMap[x][y]);
-
                 switch (pix) {
-                    case PROTAGONIST:
+                    case MapColors.PROTAGONIST:
                         protagonist = new Protagonist(x + 0.5f, y + 0.5f, this, skin, eventBus);
                         break;
-                    case ENEMY_RED:
-                        Enemy redEnemy = new RedEnemy(x + 0.5f, y + 0.5f, skin, eventBus);
-                        enemies.add(redEnemy);
+                    case MapColors.ENEMY_RED:
+                        enemies.add(EnemyType.RED, x + 0.5f, y + 0.5f, Direction.getRandomDiagonal());
+                        break;
+                    case MapColors.ENEMY_PURPLE:
+                        enemies.add(EnemyType.PURPLE, x + 0.5f, y + 0.5f, Direction.getRandomDiagonal());
                         break;
-                    case ENEMY_PURPLE:
-                        Enemy purpleEnemy = new PurpleEnemy(x + 0.5f, y + 0.5f, skin, eventBus);
-                        enemies.add(purpleEnemy);
+                    case MapColors.ENEMY_YELLOW:
+                        enemies.add(EnemyType.YELLOW, x + 0.5f, y + 0.5f, Direction.getRandomDiagonal());
                         break;
-                    case ENEMY_BLUE_U:
-                        Enemy blueEnemyU = new BlueEnemy(x + 0.5f, y + 0.8f, skin, Direction.UP, eventBus);
-                        enemies.add(blueEnemyU);
+                    case MapColors.ENEMY_BLUE_U:
+                        enemies.add(EnemyType.BLUE, x + 0.5f, y + 0.8f, Direction.UP);
                         break;
-                    case ENEMY_BLUE_R:
-                        Enemy blueEnemyR = new BlueEnemy(x + 0.8f, y + 0.5f, skin, Direction.RIGHT, eventBus);
-                        enemies.add(blueEnemyR);
+                    case MapColors.ENEMY_BLUE_R:
+                        enemies.add(EnemyType.BLUE, x + 0.8f, y + 0.5f, Direction.RIGHT);
                         break;
-                    case ENEMY_BLUE_D:
-                        Enemy blueEnemyD = new BlueEnemy(x + 0.5f, y + 0.2f, skin, Direction.DOWN, eventBus);
-                        enemies.add(blueEnemyD);
+                    case MapColors.ENEMY_BLUE_D:
+                        enemies.add(EnemyType.BLUE, x + 0.5f, y + 0.2f, Direction.DOWN);
                         break;
-                    case ENEMY_BLUE_L:
-                        Enemy blueEnemyL = new BlueEnemy(x + 0.2f, y + 0.5f, skin, Direction.LEFT, eventBus);
-                        enemies.add(blueEnemyL);
+                    case MapColors.ENEMY_BLUE_L:
+                        enemies.add(EnemyType.BLUE, x + 0.2f, y + 0.5f, Direction.LEFT);
                         break;
                 }
             }
         }
 
+        fillAnimation = new FillAnimation(levelMap);
+        addActor(fillAnimation);
         addActor(protagonist);
+        addActor(enemies);
+    }
 
-        for (Enemy enemy : enemies) {
-            addActor(enemy);
+    private void initContours() {
+        contours = new ContourGraph(this);
+        walkers = new ContourWalkers(contours, enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.isChasingTail(i)) {
+                // one field for all the chasers
+                if (tailDistances == null) {
+                    tailDistances = new TailDistanceField(this);
+                }
+            } else if (!enemies.isBouncingOffBlocks(i)) {
+                walkers.attach(i, enemies.getX(i), enemies.getY(i),
+                        enemies.getDirectionX(i), enemies.getDirectionY(i), enemies.isMovingClockwise(i));
+            }
         }
     }
 
     @Override
     public void act(float delta) {
         if (hasState(State.PLAYING)) {
+            effects.update(delta);
             super.act(delta);
+            // blocks are not children of the level, only the tail ones fade in
+            for (int i = 0; i < tail.size(); i++) {
+                tail.get(i).act(delta);
+            }
+            Profiler.begin(Profiler.Phase.CHECK_TAIL);
             checkTail(delta);
+            Profiler.end(Profiler.Phase.CHECK_TAIL);
+            Profiler.begin(Profiler.Phase.CHECK_ENEMIES);
             checkEnemies(delta);
-            checkProtagonist();
+            Profiler.end(Profiler.Phase.CHECK_ENEMIES);
             checkPercentComplete();
         }
     }
 
+    /**
+     * Draws the part of the level seen by the camera into the area of the widget.
+     * The level is rendered through the camera projection rather than a group transform,
+     * and only the blocks and the entities inside the view are drawn.
+     */
+    @Override
+    public void draw(SpriteBatch batch, float parentAlpha) {
+        updateCamera();
+        // window area of the widget
+        widgetArea.set(getX(), getY(), getWidth(), getHeight());
+        ScissorStack.calculateScissors(getStage().getCamera(), batch.getTransformMatrix(), widgetArea, windowArea);
+        batch.flush();
+        Gdx.gl.glViewport((int) windowArea.x, (int) windowArea.y, (int) windowArea.width, (int) windowArea.height);
+        stageProjection.set(batch.getProjectionMatrix());
+        stageTransform.set(batch.getTransformMatrix());
+        batch.setTransformMatrix(identity);
+        batch.setProjectionMatrix(camera.combined);
+
+        float alpha = parentAlpha * getColor().a;
+        drawBlocks(batch, alpha);
+        SnapshotArray<Actor> children = getChildren();
+        for (int i = 0; i < children.size; i++) {
+            Actor child = children.get(i);
+            if (child.isVisible()) {
+                child.draw(batch, alpha);
+            }
+        }
+
+        batch.flush();
+        Gdx.gl.glViewport(0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        batch.setTransformMatrix(stageTransform);
+        batch.setProjectionMatrix(stageProjection);
+    }
+
+    /**
+     * Registers the level and all its subscribers with the event bus.
+     * Has no other effects, so the level can be registered again whenever its screen is shown.
+     */
+    public void register() {
+        eventBus.register(this);
+        eventBus.register(blocksParticles);
+        eventBus.register(protagonist);
+        eventBus.register(enemies);
+    }
+
+    /**
+     * Announces the initial level state. Should be called once, when the level is set up to be played.
+     */
+    public void start() {
+        setScore(0);
+        updateLevelProgress(0);
+
+        String level = Integer.toString(levelIndex);
+        showNotification("Level " + level + ". Go-go-go!", 0.25f, 1.5f);
+    }
+
     public void unregister() {
         eventBus.unregister(this);
         eventBus.unregister(blocksParticles);
         eventBus.unregister(protagonist);
-        for (Enemy enemy : enemies) {
-            eventBus.unregister(enemy);
-        }
+        eventBus.unregister(enemies);
     }
 
     //---------------------------------------------------------------------
@@ -233,7 +351,7 @@ public class Level extends Group {
     @SuppressWarnings("unused")
     public void destroyBlock(DestroyBlockIntent intent) {
         Block block = intent.getBlock();
-        block.setType(Type.EMPTY);
+        setBlockType(block, Type.EMPTY);
         // update the adjacent blocks
         int bx = (int) block.getX();
         int by = (int) block.getY();
@@ -254,151 +372,226 @@ public class Level extends Group {
     // Helper methods
     //---------------------------------------------------------------------
 
+    @VisibleForTesting
     @SuppressWarnings("StatementWithEmptyBody")
-    private void checkTail(float delta) {
-        if (containsRedBlocks) {
+    void checkTail(float delta) {
+        if (tail.isBurning()) {
             redBlocksDelta += delta;
             float interval = 1 / (protagonist.getSpeed() * 3);
             if (redBlocksDelta > interval) {
                 redBlocksDelta = 0;
-                int tailSize = tailBlocks.size() - 1;
-                for (int i = 0; i <= tailSize; i++) {
-                    if (tailBlocks.get(i).hasType(Type.RED)) {
-                        // burn previous block
-                        if (i > 0) tailBlocks.get(i-1).setType(Type.RED);
-                        // skip consequent red blocks
-                        while (i < tailSize && tailBlocks.get(++i).hasType(Type.RED));
-                        // check if we caught up the protagonist
-                        if (i == tailSize && tailBlocks.get(i).hasType(Type.RED)) {
-                            protagonist.setState(Protagonist.State.DYING);
-                        } else {
-                            tailBlocks.get(i).setType(Type.RED);
-                        }
-                    }
+                // check if the fire caught up the protagonist
+                if (tail.burn()) {
+                    protagonist.die(Protagonist.DeathCause.TAIL_BURN);
                 }
             }
         }
     }
 
-    private void checkEnemies(float delta) {
-        for (Enemy enemy : enemies) {
-            checkEnemyCollisionWithProtagonist(enemy);
-            checkEnemyCollisionsWithBonuses(enemy);
-            checkEnemyCollisionsWithBlocks(enemy, delta);
+    /**
+     * Moves enemies and resolves their collisions.
+     */
+    @VisibleForTesting
+    void checkEnemies(float delta) {
+        if (tailDistances != null) {
+            tailDistances.refresh();
         }
-    }
-
-    private void checkEnemyCollisionWithProtagonist(Enemy enemy) {
-        Circle enemyCircle = enemy.getCollisionCircle();
-        Circle protagonistCircle = protagonist.getCollisionCircle();
-        if (Intersector.overlapCircles(enemyCircle, protagonistCircle)) {
-            protagonist.setState(Protagonist.State.DYING);
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.isChasingTail(i)) {
+                moveChasingEnemy(i, delta);
+            } else if (enemies.isBouncingOffBlocks(i)) {
+                moveBouncingEnemy(i, delta);
+            } else {
+                moveCrawlingEnemy(i, delta);
+            }
+            enemies.getCollisionCircle(i, enemyCircle);
+            checkEnemyCollisionsWithBonuses();
         }
     }
 
-    private void checkEnemyCollisionsWithBonuses(Enemy enemy) {
-        for (Actor actor : bonuses.getChildren()) {
-            Bonus bonus = (Bonus) actor;
-            if (Intersector.overlapCircles(enemy.getCollisionCircle(), bonus.getCollisionCircle())) {
-                bonus.removeSmoothly();
+    private void moveBouncingEnemy(int enemy, float delta) {
+        float x = enemies.getX(enemy);
+        float y = enemies.getY(enemy);
+        float dx = enemies.getDirectionX(enemy);
+        float dy = enemies.getDirectionY(enemy);
+        float radius = enemies.getCollisionRadius(enemy);
+        float distance = enemies.getSpeed(enemy) * delta;
+
+        for (int bounces = 0; bounces < MAX_BOUNCES_PER_STEP && distance > 0; bounces++) {
+            boolean hit = gridSweep.sweep(x, y, radius, dx, dy, distance);
+            float travelled = gridSweep.getDistance();
+            checkEnemyCollisionWithProtagonist(x, y, dx, dy, travelled, radius);
+            x += dx * travelled;
+            y += dy * travelled;
+            distance -= travelled;
+
+            if (!hit) break;
+
+            // direction has changed
+            if (gridSweep.isHitX()) dx = -dx;
+            if (gridSweep.isHitY()) dy = -dy;
+            bounceDirection.set(dx, dy);
+            eventBus.post(bounceFact);
+            // burn tail
+            for (int i = 0; i < gridSweep.getHitBlocksNum(); i++) {
+                hitBlock(enemy, gridSweep.getHitBlock(i));
             }
         }
-    }
 
-    private void checkEnemyCollisionsWithBlocks(Enemy enemy, float delta) {
-        if (enemy.isBouncingOffBlocks()) {
-            checkBouncingEnemyCollisionsWithBlocks(enemy);
-        } else {
-            checkCrawlingEnemyCollisionsWithBlocks(enemy, delta);
+        enemies.setPosition(enemy, x, y);
+        enemies.setDirection(enemy, dx, dy);
+    }
+
+    private void moveCrawlingEnemy(int enemy, float delta) {
+        float distance = enemies.getSpeed(enemy) * delta;
+        float radius = enemies.getCollisionRadius(enemy);
+        // one straight piece of the contour per iteration
+        for (int turns = 0; turns < MAX_TURNS_PER_STEP && distance > 0; turns++) {
+            float x = walkers.getX(enemy);
+            float y = walkers.getY(enemy);
+            float dx = walkers.getDirectionX(enemy);
+            float dy = walkers.getDirectionY(enemy);
+            float travelled = walkers.advance(enemy, distance);
+            checkEnemyCollisionWithProtagonist(x, y, dx, dy, travelled, radius);
+            distance -= travelled;
         }
+        enemies.setPosition(enemy, walkers.getX(enemy), walkers.getY(enemy));
+        enemies.setDirection(enemy, walkers.getDirectionX(enemy), walkers.getDirectionY(enemy));
     }
 
-    private void checkBouncingEnemyCollisionsWithBlocks(Enemy enemy) {
-        Vector2 direction = enemy.getDirection();
-        Vector2 signum = new Vector2(Math.signum(direction.x), Math.signum(direction.y));
-
-        Block b1 = getBlock(enemy.getX() + signum.x, enemy.getY());
-        Block b2 = getBlock(enemy.getX(), enemy.getY() + signum.y);
-        Block b3 = getBlock(enemy.getX() + signum.x, enemy.getY() + signum.y);
+    /**
+     * Moves the enemy from one cell center to another down the tail distance field.
+     * Bounces around while the tail can not be reached.
+     */
+    private void moveChasingEnemy(int enemy, float delta) {
+        float x = enemies.getX(enemy);
+        float y = enemies.getY(enemy);
+        float dx = enemies.getDirectionX(enemy);
+        float dy = enemies.getDirectionY(enemy);
+
+        if (tailDistances.getDistance((int) x, (int) y) == TailDistanceField.UNREACHABLE) {
+            if (dx == 0 || dy == 0) {
+                Vector2 diagonal = Direction.getRandomDiagonal();
+                enemies.setDirection(enemy, diagonal.x, diagonal.y);
+            }
+            moveBouncingEnemy(enemy, delta);
+            return;
+        }
 
-        List<Block> collisions = new ArrayList<Block>();
+        float radius = enemies.getCollisionRadius(enemy);
+        float distance = enemies.getSpeed(enemy) * delta;
+
+        for (int turns = 0; turns < MAX_TURNS_PER_STEP && distance > 0; turns++) {
+            int bx = (int) x;
+            int by = (int) y;
+            float centerX = bx + 0.5f;
+            float centerY = by + 0.5f;
+            float targetX, targetY;
+            if (Math.abs(x - centerX) < CENTER_EPSILON && Math.abs(y - centerY) < CENTER_EPSILON) {
+                // choose the next cell
+                x = centerX;
+                y = centerY;
+                int best = TailDistanceField.UNREACHABLE;
+                for (Vector2 axis : CHASE_DIRECTIONS) {
+                    int cellDistance = tailDistances.getDistance(bx + (int) axis.x, by + (int) axis.y);
+                    if (cellDistance < best) {
+                        best = cellDistance;
+                        dx = axis.x;
+                        dy = axis.y;
+                    }
+                }
+                if (best == TailDistanceField.UNREACHABLE) break;
+                targetX = centerX + dx;
+                targetY = centerY + dy;
+            } else if ((dx == 0 && Math.abs(x - centerX) < CENTER_EPSILON)
+                    || (dy == 0 && Math.abs(y - centerY) < CENTER_EPSILON)) {
+                // on the way to the next cell center
+                targetX = (dx > 0 && x > centerX) ? centerX + 1 : (dx < 0 && x < centerX) ? centerX - 1 : centerX;
+                targetY = (dy > 0 && y > centerY) ? centerY + 1 : (dy < 0 && y < centerY) ? centerY - 1 : centerY;
+            } else {
+                // was bouncing: go to the cell center first
+                targetX = centerX;
+                targetY = centerY;
+                float length = (float) Math.sqrt((targetX - x) * (targetX - x) + (targetY - y) * (targetY - y));
+                dx = (targetX - x) / length;
+                dy = (targetY - y) / length;
+            }
 
-        if (!b1.isEmpty()) {
-            Rectangle r1 = b1.getCollisionRectangle();
-            if (Intersector.overlapCircleRectangle(enemy.getCollisionCircle(), r1)) {
-                collisions.add(b1);
-                direction.x = - direction.x;
+            Block targetBlock = getBlock(targetX, targetY);
+            if (!targetBlock.isEmpty()) {
+                if (targetBlock.hasType(Type.TAIL) || targetBlock.hasType(Type.RED)) {
+                    // caught up the tail
+                    hitBlock(enemy, targetBlock);
+                    break;
+                }
+                // the cell ahead has been filled, go back
+                dx = -dx;
+                dy = -dy;
+                continue;
             }
-        }
-        if (!b2.isEmpty()) {
-            Rectangle r2 = b2.getCollisionRectangle();
-            if (Intersector.overlapCircleRectangle(enemy.getCollisionCircle(), r2)) {
-                collisions.add(b2);
-                direction.y = - direction.y;
+
+            float remaining = Math.abs(targetX - x) + Math.abs(targetY - y);
+            float travelled = Math.min(distance, remaining);
+            checkEnemyCollisionWithProtagonist(x, y, dx, dy, travelled, radius);
+            if (travelled == remaining) {
+                x = targetX;
+                y = targetY;
+            } else {
+                x += dx * travelled;
+                y += dy * travelled;
             }
+            distance -= travelled;
         }
 
-        if (collisions.isEmpty() && !b3.isEmpty()) {
-            Rectangle r3 = b3.getCollisionRectangle();
-            if (Intersector.overlapCircleRectangle(enemy.getCollisionCircle(), r3)) {
-                collisions.add(b3);
-                direction.x = - direction.x;
-                direction.y = - direction.y;
-            }
+        enemies.setPosition(enemy, x, y);
+        enemies.setDirection(enemy, dx, dy);
+    }
+
+    /**
+     * Checks the whole segment passed by the enemy, so it can not jump over the protagonist.
+     */
+    private void checkEnemyCollisionWithProtagonist(float x, float y, float dx, float dy, float distance, float radius) {
+        Circle protagonistCircle = protagonist.getCollisionCircle();
+        // closest point of the segment to the protagonist
+        float px = protagonistCircle.x - x;
+        float py = protagonistCircle.y - y;
+        float t = Math.max(0, Math.min(px * dx + py * dy, distance));
+        float cx = px - dx * t;
+        float cy = py - dy * t;
+        float minDistance = radius + protagonistCircle.radius;
+        if (cx * cx + cy * cy < minDistance * minDistance) {
+            protagonist.die(Protagonist.DeathCause.ENEMY);
         }
+    }
 
-        if (!collisions.isEmpty()) {
-            // direction has changed
-            eventBus.post(new EnemyBounceFact(direction));
-            // burn tail
-            for (Block block : collisions) {
-                switch (block.getType()) {
-                    case TAIL:
-                        block.setType(Type.RED);
-                        containsRedBlocks = true;
-                        break;
-                    case BLUE:
-                    case GREEN:
-                        if (enemy.isDestroyingBlocks()) {
-                            eventBus.post(new DestroyBlockIntent(block));
-                        }
-                        break;
-                }
+    private void checkEnemyCollisionsWithBonuses() {
+        for (Actor actor : bonuses.getChildren()) {
+            Bonus bonus = (Bonus) actor;
+            if (Intersector.overlapCircles(enemyCircle, bonus.getCollisionCircle())) {
+                bonus.removeSmoothly();
             }
         }
     }
 
-    private void checkCrawlingEnemyCollisionsWithBlocks(Enemy enemy, float delta) {
-        float dx = enemy.getDirection().x;
-        float dy = enemy.getDirection().y;
-        float speed = enemy.getSpeed();
-        // next block
-        float nx = enemy.getX() + delta * speed * dx;
-        float ny = enemy.getY() + delta * speed * dy;
-        Block nextBlock = getBlock(nx, ny);
-        // check whether enemy should turn in CW/CCW direction
-        int cwFactor = enemy.isMovingClockwise() ? 1: -1;
-        if (!nextBlock.isEmpty()) {
-                enemy.getDirection().set(cwFactor * dy, cwFactor * -dx);
-        } else {
-            // CW: left block (90 degrees)
-            // CCW: right block (-90 degrees)
-            float rx = enemy.getX() - cwFactor * dy;
-            float ry = enemy.getY() + cwFactor * dx;
-            Block rightBlock = getBlock(rx, ry);
-            // CW: left rear block (135 degrees)
-            // CCW: right rear block (-135 degrees)
-            float rrx = enemy.getX() - 0.7f * dx - 0.7f * cwFactor * dy;
-            float rry = enemy.getY() + 0.7f * cwFactor * dx - 0.7f * dy;
-            Block rightRearBlock = getBlock(rrx , rry);
-            // check whether enemy should turn in the opposite direction
-            if (rightBlock.isEmpty() && !rightRearBlock.isEmpty()) {
-                enemy.getDirection().set(cwFactor * -dy, cwFactor *dx);
-            }
+    private void hitBlock(int enemy, Block block) {
+        switch (block.getType()) {
+            case TAIL:
+                burnTailBlock(block);
+                break;
+            case BLUE:
+            case GREEN:
+                if (enemies.isDestroyingBlocks(enemy)) {
+                    eventBus.post(new DestroyBlockIntent(block));
+                }
+                break;
         }
     }
 
-    private void checkProtagonist() {
+    /**
+     * Called by the protagonist for every cell it enters.
+     */
+    void checkProtagonist() {
+        Profiler.begin(Profiler.Phase.CHECK_PROTAGONIST);
         if(protagonist.hasState(Protagonist.State.ALIVE) && protagonist.isOnNewBlock()) {
             // check bonuses
             for (Actor actor : bonuses.getChildren()) {
@@ -416,25 +609,32 @@ public class Level extends Group {
             Block currentBlock = getBlock(protagonist.getX(), protagonist.getY());
             switch (currentBlock.getType()) {
                 case EMPTY:
-                    currentBlock.setType(Type.TAIL);
-                    float duration = 0.5f / protagonist.getSpeed();
-                    currentBlock.addAction(Actions.sequence(Actions.delay(duration), Actions.fadeIn(duration)));
-                    tailBlocks.add(currentBlock);
+                    setBlockType(currentBlock, Type.TAIL);
+                    if (QualityGovernor.getQuality().isTailFadeIn()) {
+                        float duration = 0.5f / protagonist.getSpeed();
+                        currentBlock.fadeIn(duration, duration);
+                    } else {
+                        currentBlock.getColor().a = 1;
+                    }
+                    tail.add(currentBlock);
+                    fills.predict(tail.size());
                     eventBus.post(new TailBlockFact());
                     break;
                 case TAIL:
-                    protagonist.setState(Protagonist.State.DYING);
+                    protagonist.die(Protagonist.DeathCause.SELF_CROSSING);
                     break;
                 case GREEN:
                 case BLUE:
                 case BLUE_HARD:
                     Block prevBlock = getBlock(protagonist.getPrevX(), protagonist.getPrevY());
                     if (prevBlock.hasType(Type.TAIL)) {
+                        int newBlocks = tail.size();
+                        // fill areas, while the tail still fences them
+                        Profiler.begin(Profiler.Phase.FILL_AREAS);
+                        newBlocks += fillAreas();
+                        Profiler.end(Profiler.Phase.FILL_AREAS);
                         // convert tail
-                        int newBlocks = tailBlocks.size();
                         clearTail(Type.BLUE);
-                        // fill areas
-                        newBlocks += fillAreas();
                         // update level score
                         float bonus = 1 + newBlocks / 200f;
                         int obtainedPoints = (int) (newBlocks * bonus);
@@ -447,6 +647,7 @@ public class Level extends Group {
                     break;
             }
         }
+        Profiler.end(Profiler.Phase.CHECK_PROTAGONIST);
     }
 
     private void checkPercentComplete() {
@@ -457,82 +658,29 @@ public class Level extends Group {
 
     /**
      * Fills fenced areas if they do not contain enemies.
+     * The areas are mostly labeled in background while the tail is being drawn.
      *
      * @return the number of filled blocks
      */
-
-    private int fillAreas() {
-        // thanks to http://habrahabr.ru/post/119244/
-        byte[][] tmpState = new byte[mapWidth][mapHeight];
-        byte spotNum = 0;
-        int blocks = 0;
-        Map<Byte, List<Vector2>> spots = new HashMap<Byte, List<Vector2>>();
-        for(int i = 1; i < mapWidth - 1; i++) {
-            for(int j = 1; j < mapHeight - 1; j++) {
-                Block A = levelMap[i][j];
-                if (A.hasType(Type.EMPTY)) {
-                    byte B = tmpState[i][j-1];
-                    byte C = tmpState[i-1][j];
-
-                    if ( B == 0) {
-                        if (C == 0) {
-                            // New Spot
-                            spotNum++;
-                            tmpState[i][j] = spotNum;
-
-                            List<Vector2> spot = new ArrayList<Vector2>();
-                            spot.add(new Vector2(i,j));
-
-                            spots.put(spotNum, spot);
-                        } else {   // C!=0
-                            tmpState[i][j] = C;
-                            spots.get(C).add(new Vector2(i,j));
-                        }
-                    }
-
-                    if (B != 0) {
-                        if(C == 0) {
-                            tmpState[i][j] = B;
-                            spots.get(B).add(new Vector2(i,j));
-                        } else { // C != 0
-                            tmpState[i][j] = B;
-                            spots.get(B).add(new Vector2(i,j));
-                            if (B != C) {
-                                for(int m = 1; m < mapWidth - 1; m++) {
-                                    for(int n = 1; n < mapHeight; n++) {
-                                        if (tmpState[m][n] == C) {
-                                            tmpState[m][n] = B;
-                                        }
-                                    }
-                                }
-                                spots.get(B).addAll(spots.get(C));
-                                spots.remove(C);
-                            }
-                        }
-                    }
-                }
-            }
+    @VisibleForTesting
+    int fillAreas() {
+        FillPredictor.Areas areas = fills.takeAreas(tail);
+        for (int e = 0; e < enemies.size(); e++) {
+            areas.exclude(areas.getArea((int) enemies.getX(e), (int) enemies.getY(e)));
         }
 
-        Iterator<Byte> iterator = spots.keySet().iterator();
-        while (iterator.hasNext()) {
-            check_spot_points:
-            for(Vector2 pos: spots.get(iterator.next())) {
-                for (Enemy enemy : enemies) {
-                    if ((pos.x == (int) enemy.getX()) && (pos.y == (int) enemy.getY())) {
-                        iterator.remove();
-                        break check_spot_points;
-                    }
+        int blocks = 0;
+        boolean animateBlocks = QualityGovernor.getQuality().isBlockAnimations();
+        for (int area = 1; area <= areas.size(); area++) {
+            for (int i = areas.getStart(area); i < areas.getEnd(area); i++) {
+                int cell = areas.getCell(i);
+                Block block = levelMap[cell / mapHeight][cell % mapHeight];
+                setBlockType(block, Type.GREEN);
+                if (animateBlocks) {
+                    fillAnimation.start(block);
                 }
-            }
-        }
-
-        for(List<Vector2> spot : spots.values()) {
-            for(Vector2 pos : spot) {
-                levelMap[(int) pos.x][(int) pos.y].setType(Type.GREEN);
                 blocks++;
             }
-
         }
 
         return blocks;
@@ -542,12 +690,14 @@ public class Level extends Group {
         // calculate new position for label
         float protX = protagonist.getX();
         float protY = protagonist.getY();
-        float labelX = (protX) * getScaleX() + this.getX();
-        float labelY = (protY) * getScaleY() + this.getY();
+        float viewLeft = camera.position.x - camera.viewportWidth / 2;
+        float viewBottom = camera.position.y - camera.viewportHeight / 2;
+        float labelX = (protX - viewLeft) * cellSize + this.getX();
+        float labelY = (protY - viewBottom) * cellSize + this.getY();
         // movement distance and direction
-        float moveY = ((protY > mapHeight/2) ? -3 : 3) * getScaleY();
+        float moveY = ((protY > camera.position.y) ? -3 : 3) * cellSize;
         // correct position if is on the right side
-        boolean subtractBounds = protX > mapWidth/2;
+        boolean subtractBounds = protX > camera.position.x;
         // post event
         eventBus.post(new ObtainedPointsFact(points, labelX, labelY, moveY, subtractBounds));
     }
@@ -556,12 +706,18 @@ public class Level extends Group {
         eventBus.post(new NotificationIntent(text, showDelay, hideDelay));
     }
 
+    @VisibleForTesting
+    void burnTailBlock(Block block) {
+        block.setType(Type.RED);
+        tail.ignite(block);
+    }
+
     private void clearTail(Type newType) {
-        for (Block block : tailBlocks) {
-            block.setType(newType);
+        for (int i = 0; i < tail.size(); i++) {
+            Block block = tail.get(i);
+            setBlockType(block, newType);
         }
-        tailBlocks.clear();
-        containsRedBlocks = false;
+        tail.clear();
     }
 
     private void addBonus() {
@@ -585,10 +741,67 @@ public class Level extends Group {
 
     private void updateLevelProgress(int blocksDelta) {
         filledBlocks += blocksDelta;
-        percentComplete = (byte) (((float) filledBlocks / ((mapWidth - 2) * (mapHeight - 2))) * 100) ;
+        percentComplete = (byte) (((float) filledBlocks / fillableBlocks) * 100) ;
         eventBus.post(new LevelProgressFact(percentComplete));
     }
 
+    /**
+     * Changes the block type and keeps the contours of the crawling enemies,
+     * the distance field of the chasing ones and the fill prediction up to date.
+     */
+    private void setBlockType(Block block, Type type) {
+        boolean wasEmpty = block.isEmpty();
+        boolean changed = !block.hasType(type);
+        block.setType(type);
+        if (wasEmpty != block.isEmpty()) {
+            contours.update((int) block.getX(), (int) block.getY());
+            if (type == Type.TAIL) {
+                fills.grow((int) block.getX(), (int) block.getY());
+            } else {
+                fills.update((int) block.getX(), (int) block.getY(), block.isEmpty());
+            }
+        }
+        if (changed && tailDistances != null) {
+            tailDistances.update((int) block.getX(), (int) block.getY());
+        }
+    }
+
+    /**
+     * Follows the protagonist, but never looks beyond the map borders.
+     * A map smaller than the view is centered.
+     */
+    private void updateCamera() {
+        float viewWidth = getWidth() / cellSize;
+        float viewHeight = getHeight() / cellSize;
+        camera.viewportWidth = viewWidth;
+        camera.viewportHeight = viewHeight;
+        camera.position.set(follow(protagonist.getX(), viewWidth, mapWidth),
+                follow(protagonist.getY(), viewHeight, mapHeight), 0);
+        camera.update();
+        cullingArea.set(camera.position.x - viewWidth / 2 - CULLING_MARGIN,
+                camera.position.y - viewHeight / 2 - CULLING_MARGIN,
+                viewWidth + CULLING_MARGIN * 2, viewHeight + CULLING_MARGIN * 2);
+    }
+
+    private float follow(float target, float viewSize, float mapSize) {
+        if (viewSize >= mapSize) {
+            return mapSize / 2;
+        }
+        return MathUtils.clamp(target, viewSize / 2, mapSize - viewSize / 2);
+    }
+
+    private void drawBlocks(SpriteBatch batch, float parentAlpha) {
+        int fromX = Math.max(0, (int) cullingArea.x);
+        int fromY = Math.max(0, (int) cullingArea.y);
+        int toX = Math.min(mapWidth - 1, (int) (cullingArea.x + cullingArea.width));
+        int toY = Math.min(mapHeight - 1, (int) (cullingArea.y + cullingArea.height));
+        for (int x = fromX; x <= toX; x++) {
+            for (int y = fromY; y <= toY; y++) {
+                levelMap[x][y].draw(batch, parentAlpha);
+            }
+        }
+    }
+
     private boolean hasState(State state) {
         return this.state == state;
     }
@@ -605,14 +818,81 @@ public class Level extends Group {
         return getBlock((int) x, (int) y);
     }
 
+    EffectScheduler getEffects() {
+        return effects;
+    }
+
+    /**
+     * Sets the size of a single cell on the screen. The part of the map
+     * which does not fit into the widget is scrolled to follow the protagonist.
+     */
+    public void setCellSize(float cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    @Override
     public float getMapWidth() {
         return mapWidth;
     }
 
+    @Override
     public float getMapHeight() {
         return mapHeight;
     }
 
+    @Override
+    public Type getBlockType(int x, int y) {
+        if (x < 0 || y < 0 || x >= mapWidth || y >= mapHeight) {
+            return null;
+        }
+        return levelMap[x][y].getType();
+    }
+
+    @Override
+    public int getEnemiesNum() {
+        return enemies.size();
+    }
+
+    @Override
+    public float getEnemyX(int enemy) {
+        return enemies.getX(enemy);
+    }
+
+    @Override
+    public float getEnemyY(int enemy) {
+        return enemies.getY(enemy);
+    }
+
+    @Override
+    public int getTailLength() {
+        return tail.size();
+    }
+
+    @Override
+    public int getTailX(int index) {
+        return tail.getCell(index) / mapHeight;
+    }
+
+    @Override
+    public int getTailY(int index) {
+        return tail.getCell(index) % mapHeight;
+    }
+
+    @Override
+    public float getProtagonistX() {
+        return protagonist.getX();
+    }
+
+    @Override
+    public float getProtagonistY() {
+        return protagonist.getY();
+    }
+
+    @Override
+    public Vector2 getProtagonistDirection() {
+        return protagonist.getDirection();
+    }
+
     public int getScore() {
         return score;
     }
@@ -631,6 +911,37 @@ public class Level extends Group {
         return protagonist;
     }
 
+    public int getBonusesNum() {
+        return bonuses.getChildren().size;
+    }
+
+    /**
+     * @return number of the particles alive in all the effects of the level
+     */
+    public int getActiveParticlesNum() {
+        int particles = protagonist.getActiveParticlesNum()
+                + enemies.getActiveParticlesNum()
+                + blocksParticles.getActiveParticlesNum();
+        for (Actor actor : bonuses.getChildren()) {
+            particles += ((Bonus) actor).getActiveParticlesNum();
+        }
+        return particles;
+    }
+
+    public int getLevelIndex() {
+        return levelIndex;
+    }
+
+    @VisibleForTesting
+    EnemySystem getEnemies() {
+        return enemies;
+    }
+
+    @VisibleForTesting
+    Tail getTail() {
+        return tail;
+    }
+
     //---------------------------------------------------------------------
     // Nested Classes
     //---------------------------------------------------------------------
@@ -639,4 +950,22 @@ public class Level extends Group {
         PLAYING, PAUSED, LEVEL_COMPLETED
     }
 
+    /**
+     * RGB888 pixel colors of the level map images.
+     */
+    public static final class MapColors {
+        public static final int BLOCK_BLUE_HARD = 0x000055;
+        public static final int ENEMY_RED = 0xFF0000;
+        public static final int ENEMY_PURPLE = 0xFF00FF;
+        public static final int ENEMY_YELLOW = 0xFFFF00;
+        public static final int ENEMY_BLUE_U = 0x0000FC;
+        public static final int ENEMY_BLUE_R = 0x0000FD;
+        public static final int ENEMY_BLUE_D = 0x0000FE;
+        public static final int ENEMY_BLUE_L = 0x0000FF;
+        public static final int PROTAGONIST = 0x00FF00;
+
+        private MapColors() {
+        }
+    }
+
 }
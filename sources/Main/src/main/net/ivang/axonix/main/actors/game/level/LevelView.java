@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import com.badlogic.gdx.math.Vector2;
+
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+
+/**
+ * Read-only view of a level for the protagonist controllers.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public interface LevelView {
+
+    float getMapWidth();
+
+    float getMapHeight();
+
+    /**
+     * @return type of the block at (x, y), or {@code null} if it is outside the map
+     */
+    Type getBlockType(int x, int y);
+
+    int getEnemiesNum();
+
+    float getEnemyX(int enemy);
+
+    float getEnemyY(int enemy);
+
+    int getTailLength();
+
+    int getTailX(int index);
+
+    int getTailY(int index);
+
+    float getProtagonistX();
+
+    float getProtagonistY();
+
+    /**
+     * @return unit vector along one of the axes, zero if the protagonist stands still
+     */
+    Vector2 getProtagonistDirection();
+
+}
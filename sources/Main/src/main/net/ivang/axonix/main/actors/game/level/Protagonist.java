@@ -17,7 +17,6 @@
 package net.ivang.axonix.main.actors.game.level;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
@@ -29,13 +28,13 @@ import com.google.common.eventbus.Subscribe;
 import net.ivang.axonix.main.actors.game.KinematicActor;
 import net.ivang.axonix.main.actors.game.level.blocks.Block;
 import net.ivang.axonix.main.actors.game.level.bonuses.SpeedBonus;
-import net.ivang.axonix.main.effects.Effect;
 import net.ivang.axonix.main.effects.SpeedEffect;
+import net.ivang.axonix.main.effects.Stat;
 import net.ivang.axonix.main.events.intents.game.LivesIntent;
-
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
+import net.ivang.axonix.main.input.KeyboardController;
+import net.ivang.axonix.main.input.ProtagonistController;
+import net.ivang.axonix.main.profiling.Profiler;
+import net.ivang.axonix.main.quality.ScaledParticleEffect;
 
 import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
 
@@ -45,29 +44,39 @@ import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
  */
 public class Protagonist extends KinematicActor {
 
+    // distances below it do not move the position noticeably
+    private static final float STOP_EPSILON = 1e-4f;
+
     private State state;
-    private List<Effect> effects;
+    private DeathCause deathCause;
+    private Stat speedStat;
 
     private float spawnX, spawnY;
     private float prevX, prevY;
     private Circle collisionCircle;
 
+    private Vector2 position;
     private Vector2 nextDirection;
     boolean canChangeDirection;
 
     private Level level;
+    private ProtagonistController controller;
 
     private TextureRegion region;
     private ParticleEffect particleAlive;
     private ParticleEffect particleDead;
+    private ParticleEffect particleSpeed;
 
     private EventBus eventBus;
 
     public Protagonist(float x, float y, Level level, Skin skin, EventBus eventBus) {
         this.state = State.ALIVE;
         this.level = level;
+        this.controller = new KeyboardController();
         this.region = skin.getRegion("circular_flare");
         this.collisionCircle = new Circle(x, y, 0.4f);
+        this.position = new Vector2();
+        this.speedStat = new Stat(0);
 
         setX(x); setY(y);
         setSpawnX(x); setSpawnY(y);
@@ -86,11 +95,7 @@ public class Protagonist extends KinematicActor {
         particleDead = new ParticleEffect();
         particleDead.load(Gdx.files.internal("data/particles/protagonist/protagonist_dead.p"), skin.getAtlas());
 
-        effects = new ArrayList<Effect>();
-
-        // register with the event bus
         this.eventBus = eventBus;
-        eventBus.register(this);
     }
 
     @Override
@@ -98,16 +103,24 @@ public class Protagonist extends KinematicActor {
         super.act(delta);
         switch (state) {
             case ALIVE:
-                processKeys();
+                processInput();
                 updateDirection();
                 updatePosition(delta);
                 particleAlive.setPosition(getX(), getY());
+                Profiler.begin(Profiler.Phase.PARTICLES);
                 particleAlive.update(delta);
-                // effects
-                Iterator<Effect> iterator = effects.iterator();
-                while (iterator.hasNext()) {
-                    if (iterator.next().act(delta)) {
-                        iterator.remove();
+                Profiler.end(Profiler.Phase.PARTICLES);
+                // speed bonus trail
+                if (particleSpeed != null) {
+                    if (!speedStat.hasModifiers()) {
+                        particleSpeed.allowCompletion();
+                    }
+                    particleSpeed.setPosition(getX(), getY());
+                    Profiler.begin(Profiler.Phase.PARTICLES);
+                    particleSpeed.update(delta);
+                    Profiler.end(Profiler.Phase.PARTICLES);
+                    if (particleSpeed.isComplete()) {
+                        particleSpeed = null;
                     }
                 }
                 break;
@@ -115,8 +128,10 @@ public class Protagonist extends KinematicActor {
                 if (particleDead.isComplete()) {
                     this.setState(State.DEAD);
                 } else {
+                    Profiler.begin(Profiler.Phase.PARTICLES);
                     particleDead.update(delta);
                     particleAlive.update(delta);
+                    Profiler.end(Profiler.Phase.PARTICLES);
                 }
                 break;
         }
@@ -132,9 +147,9 @@ public class Protagonist extends KinematicActor {
                 batch.setColor(1, 1, 1, 1);
                 batch.draw(region, getX() - getOriginX(), getY() - getOriginY(), getOriginX(), getOriginY(),
                         getWidth(), getHeight(), getScaleX(), getScaleY(), getRotation());
-                // effects
-                for (Effect effect : effects) {
-                    effect.draw(batch);
+                // speed bonus trail
+                if (particleSpeed != null) {
+                    particleSpeed.draw(batch);
                 }
                 break;
             case DYING:
@@ -151,6 +166,16 @@ public class Protagonist extends KinematicActor {
         return this.state == state;
     }
 
+    /**
+     * Kills the protagonist, unless it is already dying.
+     */
+    public void die(DeathCause cause) {
+        if (hasState(State.ALIVE)) {
+            deathCause = cause;
+            setState(State.DYING);
+        }
+    }
+
     public void setState(State state) {
         if (!hasState(state)) {
             this.state = state;
@@ -176,9 +201,8 @@ public class Protagonist extends KinematicActor {
                 setPrevX(spawnX); setPrevY(spawnY);
                 particleAlive.setPosition(spawnX, spawnY);
                 // remove all effects
-                for (Effect effect : effects) {
-                    effect.complete();
-                }
+                speedStat.clearModifiers();
+                particleSpeed = null;
                 break;
             case DEAD:
                 eventBus.post(new LivesIntent(-1));
@@ -190,53 +214,28 @@ public class Protagonist extends KinematicActor {
     @Subscribe
     @SuppressWarnings("unused")
     public void onSpeedBonus(SpeedBonus bonus) {
-        effects.add(new SpeedEffect(this, 2, 10, bonus.getParticleEffect()));
+        level.getEffects().schedule(new SpeedEffect(speedStat, 2, 10));
+        if (particleSpeed == null) {
+            particleSpeed = new ParticleEffect(bonus.getParticleEffect());
+        }
+        particleSpeed.setPosition(getX(), getY());
+        particleSpeed.start();
     }
 
     //---------------------------------------------------------------------
     // Helper Methods
     //---------------------------------------------------------------------
 
-    private void processKeys() {
-        boolean isDraggedLeft = false;
-        boolean isDraggedRight = false;
-        boolean isDraggedDown = false;
-        boolean isDraggedUp = false;
-
-        if (Gdx.input.isTouched()) {
-            int dx = Gdx.input.getDeltaX();
-            int dy = Gdx.input.getDeltaY();
-            float diff = Math.abs(dx) - Math.abs(dy);
-            int deadZone = Gdx.graphics.getHeight() / 240;
-            isDraggedLeft = dx < -deadZone && diff > 0;
-            isDraggedRight = dx > deadZone && diff >= 0;
-            isDraggedDown = dy < -deadZone && diff < 0;
-            isDraggedUp =  dy > deadZone && diff <= 0;
-        }
+    private void processInput() {
+        Vector2 requested = controller.getDirection(level);
+        if (requested == Direction.IDLE) return;
 
         Block block = level.getBlock(getX(), getY());
         boolean onFilledBlock = block.hasType(Type.BLUE) || block.hasType(Type.BLUE_HARD) || block.hasType(Type.GREEN);
-
-        // DOWN
-        if (Gdx.input.isKeyPressed(Input.Keys.DOWN) || Gdx.input.isKeyPressed(Input.Keys.S) || isDraggedUp) {
-            if (onFilledBlock || direction != Direction.UP) {
-                nextDirection = Direction.DOWN;
-            }
-        // UP
-        } else if (Gdx.input.isKeyPressed(Input.Keys.UP) || Gdx.input.isKeyPressed(Input.Keys.W) || isDraggedDown) {
-            if(onFilledBlock || direction != Direction.DOWN) {
-                nextDirection = Direction.UP;
-            }
-        // LEFT
-        } else if (Gdx.input.isKeyPressed(Input.Keys.LEFT) || Gdx.input.isKeyPressed(Input.Keys.A) || isDraggedLeft) {
-            if (onFilledBlock || direction != Direction.RIGHT) {
-                nextDirection = Direction.LEFT;
-            }
-        // RIGHT
-        } else if (Gdx.input.isKeyPressed(Input.Keys.RIGHT) || Gdx.input.isKeyPressed(Input.Keys.D) || isDraggedRight) {
-            if (onFilledBlock || direction != Direction.LEFT) {
-                nextDirection = Direction.RIGHT;
-            }
+        // never turn back on the tail
+        boolean isOpposite = requested.x == -direction.x && requested.y == -direction.y;
+        if (onFilledBlock || !isOpposite) {
+            nextDirection = requested;
         }
     }
 
@@ -265,29 +264,64 @@ public class Protagonist extends KinematicActor {
         return false;
     }
 
+    /**
+     * Moves through the cells one by one, stopping at every cell border and center,
+     * so the level can check each crossed cell and turns are not missed.
+     */
     private void updatePosition(float deltaTime) {
-        if (direction != Direction.IDLE) {
-            Vector2 position = new Vector2(getX(), getY());
-            float distance = calculateDistance(deltaTime);
-
-            updatePositon(position, distance);
-
-            if (position.x == getX() && position.y == getY()) {
+        float distance = deltaTime * getSpeed();
+        while (distance > STOP_EPSILON && direction != Direction.IDLE && hasState(State.ALIVE)) {
+            if (isBlocked()) {
                 direction = Direction.IDLE;
-            } else {
-                // update previous coords
-                prevX = getX();
-                prevY = getY();
-                // update current coords
-                setX(position.x);
-                setY(position.y);
+                break;
+            }
+            float stop = calculateStop();
+            float distanceToStop = Math.abs(stop - ((direction.x != 0) ? getX() : getY()));
+            // a remainder too small to move the float position is used up at the stop
+            boolean reachesStop = distance >= distanceToStop - STOP_EPSILON;
+            float step = reachesStop ? distanceToStop : distance;
+            position.set(getX(), getY());
+            updatePositon(position, step);
+            if (reachesStop) {
+                if (direction.x != 0) {
+                    position.x = stop;
+                } else {
+                    position.y = stop;
+                }
+            }
+            // update previous coords
+            prevX = getX();
+            prevY = getY();
+            // update current coords
+            setX(position.x);
+            setY(position.y);
+            distance = reachesStop ? distance - distanceToStop : 0;
+            if (isOnNewBlock()) {
+                level.checkProtagonist();
             }
+            updateDirection();
         }
     }
 
-    private float calculateDistance(float deltaTime) {
-        float distance = deltaTime * speed;
-        return Math.min(distance, 1f);
+    /**
+     * @return true if the current direction is zero or leads out of the map
+     */
+    private boolean isBlocked() {
+        return direction.x == 0 && direction.y == 0
+                || direction.x < 0 && getX() <= 0.5f
+                || direction.x > 0 && getX() >= level.getMapWidth() - 0.5f
+                || direction.y < 0 && getY() <= 0.5f
+                || direction.y > 0 && getY() >= level.getMapHeight() - 0.5f;
+    }
+
+    /**
+     * @return coordinate of the next cell border or cell center in the current direction
+     */
+    private float calculateStop() {
+        float coordinate = (direction.x != 0) ? getX() : getY();
+        float sign = (direction.x != 0) ? direction.x : direction.y;
+        float halves = coordinate * 2;
+        return (sign > 0) ? (float) (Math.floor(halves) + 1) / 2 : (float) (Math.ceil(halves) - 1) / 2;
     }
 
     private void updatePositon(Vector2 position, float distance) {
@@ -366,12 +400,44 @@ public class Protagonist extends KinematicActor {
         this.spawnY = spawnY;
     }
 
+    /**
+     * @return cause of the last death, {@code null} if there was none
+     */
+    public DeathCause getDeathCause() {
+        return deathCause;
+    }
+
+    public int getActiveParticlesNum() {
+        int particles = ScaledParticleEffect.getActiveCount(particleAlive);
+        if (hasState(State.DYING)) {
+            particles += ScaledParticleEffect.getActiveCount(particleDead);
+        }
+        if (particleSpeed != null) {
+            particles += ScaledParticleEffect.getActiveCount(particleSpeed);
+        }
+        return particles;
+    }
+
+    public ProtagonistController getController() {
+        return controller;
+    }
+
+    public void setController(ProtagonistController controller) {
+        this.controller = controller;
+    }
+
     public Circle getCollisionCircle() {
         return collisionCircle;
     }
 
+    @Override
     public float getSpeed() {
-        return speed;
+        return speedStat.getValue();
+    }
+
+    @Override
+    public void setSpeed(float speed) {
+        speedStat.setBase(speed);
     }
 
     //---------------------------------------------------------------------
@@ -382,4 +448,8 @@ public class Protagonist extends KinematicActor {
         ALIVE, DYING, DEAD
     }
 
+    public enum DeathCause {
+        ENEMY, TAIL_BURN, SELF_CROSSING
+    }
+
 }
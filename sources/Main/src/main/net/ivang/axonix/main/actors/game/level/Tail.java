@@ -0,0 +1,172 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import com.badlogic.gdx.utils.IntArray;
+import net.ivang.axonix.main.actors.game.level.blocks.Block;
+
+import java.util.Arrays;
+
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+
+/**
+ * Cells of the protagonist's tail in the order they were passed, and the fire burning along it.
+ * The fire is kept as sorted runs of burning tail indices. Every run spreads one cell back
+ * and one cell forward per step, and the runs which meet are merged, so a step costs
+ * as much as there are runs, however long the tail is.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+class Tail {
+
+    private static final int NONE = -1;
+
+    private final Level level;
+    private final int height;
+
+    private IntArray cells;
+    // index in the tail for every cell of the map
+    private int[] indices;
+
+    private IntArray runStarts;
+    private IntArray runEnds;
+
+    Tail(Level level) {
+        this.level = level;
+        this.height = (int) level.getMapHeight();
+        this.cells = new IntArray();
+        this.indices = new int[(int) level.getMapWidth() * height];
+        this.runStarts = new IntArray();
+        this.runEnds = new IntArray();
+        Arrays.fill(indices, NONE);
+    }
+
+    void add(Block block) {
+        int cell = getCell(block);
+        indices[cell] = cells.size;
+        cells.add(cell);
+    }
+
+    /**
+     * Removes all the blocks and puts the fire out.
+     */
+    void clear() {
+        for (int i = 0; i < cells.size; i++) {
+            indices[cells.get(i)] = NONE;
+        }
+        cells.clear();
+        extinguish();
+    }
+
+    /**
+     * Sets the tail on fire at the given block. Does nothing if the block is not
+     * in the tail or is already burning.
+     */
+    void ignite(Block block) {
+        int index = indices[getCell(block)];
+        if (index == NONE) return;
+        // keep the runs sorted
+        int run = 0;
+        while (run < runStarts.size && runEnds.get(run) < index) {
+            run++;
+        }
+        if (run < runStarts.size && runStarts.get(run) <= index) return;
+        runStarts.insert(run, index);
+        runEnds.insert(run, index);
+    }
+
+    /**
+     * Spreads the fire one cell in both directions along the tail.
+     *
+     * @return true if the fire has reached the end of the tail
+     */
+    boolean burn() {
+        boolean reachedEnd = false;
+        int last = cells.size - 1;
+        for (int run = 0; run < runStarts.size; run++) {
+            int start = runStarts.get(run);
+            if (start > 0) {
+                runStarts.set(run, --start);
+                get(start).setType(Type.RED);
+            }
+            int end = runEnds.get(run);
+            if (end == last) {
+                reachedEnd = true;
+            } else {
+                runEnds.set(run, ++end);
+                get(end).setType(Type.RED);
+            }
+        }
+        mergeRuns();
+        return reachedEnd;
+    }
+
+    /**
+     * Forgets the fire without changing the blocks.
+     */
+    void extinguish() {
+        runStarts.clear();
+        runEnds.clear();
+    }
+
+    boolean isBurning() {
+        return runStarts.size > 0;
+    }
+
+    int size() {
+        return cells.size;
+    }
+
+    Block get(int index) {
+        int cell = getCell(index);
+        return level.getBlock(cell / height, cell % height);
+    }
+
+    /**
+     * @return the map cell (x * map height + y) of the tail block with the given index
+     */
+    int getCell(int index) {
+        return cells.get(index);
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void mergeRuns() {
+        int merged = 0;
+        for (int run = 0; run < runStarts.size; run++) {
+            int start = runStarts.get(run);
+            int end = runEnds.get(run);
+            if (merged > 0 && start <= runEnds.get(merged - 1) + 1) {
+                runEnds.set(merged - 1, Math.max(end, runEnds.get(merged - 1)));
+            } else {
+                runStarts.set(merged, start);
+                runEnds.set(merged, end);
+                merged++;
+            }
+        }
+        runStarts.truncate(merged);
+        runEnds.truncate(merged);
+    }
+
+    private int getCell(Block block) {
+        return (int) block.getX() * height + (int) block.getY();
+    }
+
+}
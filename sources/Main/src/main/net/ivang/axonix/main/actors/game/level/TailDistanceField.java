@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level;
+
+import com.badlogic.gdx.utils.IntArray;
+import net.ivang.axonix.main.actors.game.level.blocks.Block;
+
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+
+/**
+ * Walking distance from every empty cell to the closest tail block, shared by all
+ * the chasing enemies. Block changes are only recorded; {@link #refresh()} then
+ * repairs the part of the field they affect instead of rebuilding it.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+class TailDistanceField {
+
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private final Level level;
+    private final int width;
+    private final int height;
+    private final int[] distances;
+
+    private final IntArray changed;
+    private final IntArray invalidated;
+    private final IntArray queue;
+    // marks of the cells visited during the current refresh
+    private final int[] marks;
+    private int mark;
+
+    TailDistanceField(Level level) {
+        this.level = level;
+        this.width = (int) level.getMapWidth();
+        this.height = (int) level.getMapHeight();
+        this.distances = new int[width * height];
+        this.marks = new int[width * height];
+        this.changed = new IntArray();
+        this.invalidated = new IntArray();
+        this.queue = new IntArray();
+        for (int cell = 0; cell < distances.length; cell++) {
+            distances[cell] = UNREACHABLE;
+            changed.add(cell);
+        }
+    }
+
+    /**
+     * Records the change of the block at (x, y). The field is repaired on the next {@link #refresh()}.
+     */
+    void update(int x, int y) {
+        changed.add(x * height + y);
+    }
+
+    /**
+     * Applies all the recorded changes. Cells whose distance could have grown are invalidated
+     * and seeded again from their valid neighbours, then shorter paths are propagated outwards.
+     */
+    void refresh() {
+        if (changed.size == 0) return;
+        mark++;
+        // collect the cells which could depend on the removed tail blocks or the new walls
+        for (int i = 0; i < changed.size; i++) {
+            int cell = changed.get(i);
+            if (distances[cell] != UNREACHABLE && !isTail(cell) && marks[cell] != mark) {
+                marks[cell] = mark;
+                invalidated.add(cell);
+            }
+        }
+        for (int i = 0; i < invalidated.size; i++) {
+            int cell = invalidated.get(i);
+            int next = distances[cell] + 1;
+            int x = cell / height;
+            int y = cell % height;
+            if (x > 0) invalidate(cell - height, next);
+            if (x < width - 1) invalidate(cell + height, next);
+            if (y > 0) invalidate(cell - 1, next);
+            if (y < height - 1) invalidate(cell + 1, next);
+        }
+        for (int i = 0; i < invalidated.size; i++) {
+            distances[invalidated.get(i)] = UNREACHABLE;
+        }
+        // seed the changed and invalidated cells from their neighbours
+        for (int i = 0; i < changed.size; i++) {
+            seed(changed.get(i));
+        }
+        for (int i = 0; i < invalidated.size; i++) {
+            seed(invalidated.get(i));
+        }
+        // propagate the shorter distances
+        for (int i = 0; i < queue.size; i++) {
+            int cell = queue.get(i);
+            int next = distances[cell] + 1;
+            int x = cell / height;
+            int y = cell % height;
+            if (x > 0) relax(cell - height, next);
+            if (x < width - 1) relax(cell + height, next);
+            if (y > 0) relax(cell - 1, next);
+            if (y < height - 1) relax(cell + 1, next);
+        }
+        changed.clear();
+        invalidated.clear();
+        queue.clear();
+    }
+
+    /**
+     * @return number of steps from the cell at (x, y) to the closest tail block,
+     * or {@link #UNREACHABLE} if there is no path
+     */
+    int getDistance(int x, int y) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return UNREACHABLE;
+        }
+        return distances[x * height + y];
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void invalidate(int cell, int distance) {
+        if (distances[cell] == distance && marks[cell] != mark && !isTail(cell)) {
+            marks[cell] = mark;
+            invalidated.add(cell);
+        }
+    }
+
+    private void seed(int cell) {
+        int distance;
+        if (isTail(cell)) {
+            distance = 0;
+        } else if (isEmpty(cell)) {
+            int x = cell / height;
+            int y = cell % height;
+            int closest = UNREACHABLE;
+            if (x > 0) closest = Math.min(closest, distances[cell - height]);
+            if (x < width - 1) closest = Math.min(closest, distances[cell + height]);
+            if (y > 0) closest = Math.min(closest, distances[cell - 1]);
+            if (y < height - 1) closest = Math.min(closest, distances[cell + 1]);
+            distance = (closest == UNREACHABLE) ? UNREACHABLE : closest + 1;
+        } else {
+            distance = UNREACHABLE;
+        }
+        distances[cell] = distance;
+        if (distance != UNREACHABLE) {
+            queue.add(cell);
+        }
+    }
+
+    private void relax(int cell, int distance) {
+        if (distance < distances[cell] && isEmpty(cell)) {
+            distances[cell] = distance;
+            queue.add(cell);
+        }
+    }
+
+    private boolean isTail(int cell) {
+        Block block = getBlock(cell);
+        return block.hasType(Type.TAIL) || block.hasType(Type.RED);
+    }
+
+    private boolean isEmpty(int cell) {
+        return getBlock(cell).isEmpty();
+    }
+
+    private Block getBlock(int cell) {
+        return level.getBlock(cell / height, cell % height);
+    }
+
+}
@@ -18,12 +18,8 @@ package net.ivang.axonix.main.actors.game.level.blocks;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Rectangle;
-import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
-import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 
 /**
  * @author Ivan Gadzhega
@@ -31,13 +27,17 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
  */
 public class Block extends Actor {
 
-    private Skin skin;
+    private BlockDescriptors descriptors;
     private Type type;
-    private TextureRegion region;
     private Rectangle collisionRectangle;
-
-    public Block(float x, float y, Type type, Skin skin) {
-        this.skin = skin;
+    private boolean animated;
+    // negative while the fade-in is delayed
+    private float fadeInTime;
+    private float fadeInDuration;
+    private float fadeInAlpha;
+
+    public Block(float x, float y, Type type, BlockDescriptors descriptors) {
+        this.descriptors = descriptors;
         setX(x); setY(y);
         setWidth(1f);
         setHeight(1f);
@@ -47,42 +47,47 @@ public class Block extends Actor {
         this.collisionRectangle = new Rectangle(x, y, getWidth(), getHeight());
     }
 
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (fadeInDuration > 0) {
+            boolean starting = fadeInTime < 0;
+            fadeInTime += delta;
+            if (fadeInTime >= 0) {
+                if (starting) {
+                    fadeInAlpha = getColor().a;
+                }
+                float progress = Math.min(fadeInTime / fadeInDuration, 1);
+                getColor().a = fadeInAlpha + (1 - fadeInAlpha) * progress;
+                if (progress == 1) {
+                    fadeInDuration = 0;
+                }
+            }
+        }
+    }
+
     @Override
     public void draw(SpriteBatch batch, float parentAlpha) {
-        if (!isEmpty()) {
+        // animated blocks are drawn by FillAnimation
+        if (!isEmpty() && !animated) {
             batch.setColor(getColor());
-            batch.draw(region, getX(), getY(), getOriginX(), getOriginY(), getWidth(), getHeight(), getScaleX(), getScaleY(), getRotation());
+            batch.draw(getRegion(), getX(), getY(), getOriginX(), getOriginY(), getWidth(), getHeight(), getScaleX(), getScaleY(), getRotation());
         }
     }
 
     public void setType(Type type) {
         this.type = type;
-        switch (getType()) {
-            case RED:
-                setColor(1, 1, 1, 1);
-                setRegion(skin.getRegion("block_red"));
-                break;
-            case GREEN:
-                setColor(0, 1, 0.3f, 1);
-                setRegion(skin.getRegion("block_blue"));
-                applyVisualEffects();
-                break;
-            case BLUE:
-                setColor(1, 1, 1, 1);
-                setRegion(skin.getRegion("block_blue"));
-                break;
-            case BLUE_HARD:
-                setColor(1, 1, 1, 1);
-                setRegion(skin.getRegion("block_blue_hard"));
-                break;
-            case TAIL:
-                setColor(0.3f, 0.3f, 1, 0);
-                setRegion(skin.getRegion("block_blue"));
-                break;
-            default:
-                setColor(1, 1, 1, 1);
-                setRegion(null);
-        }
+        getColor().set(descriptors.get(type).getTint());
+        fadeInDuration = 0;
+    }
+
+    /**
+     * Fades the block in after the delay. Driven by act() alone, with no pooled actions,
+     * so the levels can be played on several threads at once. A type change stops it.
+     */
+    public void fadeIn(float delay, float duration) {
+        fadeInTime = -delay;
+        fadeInDuration = duration;
     }
 
     public boolean hasType(Type type) {
@@ -93,26 +98,6 @@ public class Block extends Actor {
         return hasType(Type.EMPTY);
     }
 
-    //---------------------------------------------------------------------
-    // Helper methods
-    //---------------------------------------------------------------------
-
-    private void applyVisualEffects() {
-        float duration1 = 0.1f;
-        float duration2 = 0.15f;
-        // scale actions
-        Action scaleDown = Actions.scaleTo(0.5f, 0.5f, duration1);
-        Action scaleUp = Actions.scaleTo(1, 1, duration2);
-        // rotate actions
-        int angle = MathUtils.random(-45, 45);
-        Action rotate = Actions.rotateBy(angle, duration1);
-        Action rotateBack = Actions.rotateBy(-angle, duration2);
-        // sequence
-        Action act1 = Actions.parallel(scaleDown, rotate);
-        Action act2 = Actions.parallel(scaleUp, rotateBack);
-        addAction(Actions.sequence(act1, act2));
-    }
-
     //---------------------------------------------------------------------
     // Getters & Setters
     //---------------------------------------------------------------------
@@ -125,8 +110,16 @@ public class Block extends Actor {
         return collisionRectangle;
     }
 
-    public void setRegion(TextureRegion region) {
-        this.region = region;
+    public TextureRegion getRegion() {
+        return descriptors.get(type).getRegion();
+    }
+
+    public boolean isAnimated() {
+        return animated;
+    }
+
+    public void setAnimated(boolean animated) {
+        this.animated = animated;
     }
 
     //---------------------------------------------------------------------
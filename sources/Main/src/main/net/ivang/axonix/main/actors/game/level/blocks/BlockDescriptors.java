@@ -0,0 +1,106 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level.blocks;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+
+/**
+ * Region and tint of each block type, looked up in the skin once and shared by all the blocks,
+ * so changing the type of a block is a couple of field writes instead of a skin lookup.
+ * The whole table is replaced at once when resolved again, and the blocks pick up
+ * the new regions on the next draw.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public final class BlockDescriptors {
+
+    private static final Map<Skin, BlockDescriptors> instances = new IdentityHashMap<Skin, BlockDescriptors>();
+
+    private final Skin skin;
+    private volatile Descriptor[] descriptors;
+
+    private BlockDescriptors(Skin skin) {
+        this.skin = skin;
+        resolve();
+    }
+
+    /**
+     * @return descriptors of the given skin, the levels may be built on a background thread
+     */
+    public static synchronized BlockDescriptors forSkin(Skin skin) {
+        BlockDescriptors blockDescriptors = instances.get(skin);
+        if (blockDescriptors == null) {
+            blockDescriptors = new BlockDescriptors(skin);
+            instances.put(skin, blockDescriptors);
+        }
+        return blockDescriptors;
+    }
+
+    /**
+     * Looks the regions up in the skin again, e.g. after the style has changed.
+     */
+    public void resolve() {
+        Descriptor[] resolved = new Descriptor[Type.values().length];
+        resolved[Type.EMPTY.ordinal()] = new Descriptor(null, Color.WHITE);
+        resolved[Type.RED.ordinal()] = new Descriptor(skin.getRegion("block_red"), Color.WHITE);
+        resolved[Type.GREEN.ordinal()] = new Descriptor(skin.getRegion("block_blue"), new Color(0, 1, 0.3f, 1));
+        resolved[Type.BLUE.ordinal()] = new Descriptor(skin.getRegion("block_blue"), Color.WHITE);
+        resolved[Type.BLUE_HARD.ordinal()] = new Descriptor(skin.getRegion("block_blue_hard"), Color.WHITE);
+        // transparent, the new tail blocks fade in
+        resolved[Type.TAIL.ordinal()] = new Descriptor(skin.getRegion("block_blue"), new Color(0.3f, 0.3f, 1, 0));
+        descriptors = resolved;
+    }
+
+    public Descriptor get(Type type) {
+        return descriptors[type.ordinal()];
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public static final class Descriptor {
+        private final TextureRegion region;
+        private final Color tint;
+
+        private Descriptor(TextureRegion region, Color tint) {
+            this.region = region;
+            // a copy, so no shared constant like Color.WHITE is handed out
+            this.tint = new Color(tint);
+        }
+
+        public TextureRegion getRegion() {
+            return region;
+        }
+
+        /**
+         * @return tint owned by the descriptor, to be copied and never modified
+         */
+        public Color getTint() {
+            return tint;
+        }
+    }
+
+}
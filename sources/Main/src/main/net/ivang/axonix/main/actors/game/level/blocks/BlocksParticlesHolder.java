@@ -21,9 +21,10 @@ import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
-import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import net.ivang.axonix.main.events.intents.game.DestroyBlockIntent;
+import net.ivang.axonix.main.profiling.Profiler;
+import net.ivang.axonix.main.quality.ScaledParticleEffect;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -37,19 +38,20 @@ public class BlocksParticlesHolder extends Actor {
     private Skin skin;
     private List<ParticleEffect> particleEffects;
 
-    public BlocksParticlesHolder(Skin skin, EventBus eventBus) {
+    public BlocksParticlesHolder(Skin skin) {
         this.skin = skin;
         this.particleEffects = new ArrayList<ParticleEffect>();
-        eventBus.register(this);
     }
 
     @Override
     public void act(float delta) {
+        Profiler.begin(Profiler.Phase.PARTICLES);
         for (ParticleEffect particleEffect : particleEffects) {
             if (!particleEffect.isComplete()) {
                 particleEffect.update(delta);
             }
         }
+        Profiler.end(Profiler.Phase.PARTICLES);
     }
 
     @Override
@@ -61,6 +63,16 @@ public class BlocksParticlesHolder extends Actor {
         }
     }
 
+    public int getActiveParticlesNum() {
+        int count = 0;
+        for (ParticleEffect particleEffect : particleEffects) {
+            if (!particleEffect.isComplete()) {
+                count += ScaledParticleEffect.getActiveCount(particleEffect);
+            }
+        }
+        return count;
+    }
+
     @Subscribe
     @SuppressWarnings("unused")
     public void onBlockDestruction(DestroyBlockIntent intent) {
@@ -74,7 +86,7 @@ public class BlocksParticlesHolder extends Actor {
         }
         // or create new one
         if (effect == null) {
-            effect = new ParticleEffect();
+            effect = new ScaledParticleEffect();
             effect.load(Gdx.files.internal("data/particles/block_blue.p"), skin.getAtlas());
             particleEffects.add(effect);
         }
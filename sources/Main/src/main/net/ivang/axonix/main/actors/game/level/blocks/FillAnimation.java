@@ -0,0 +1,112 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level.blocks;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.utils.Cullable;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * Pop-in animation of the filled blocks. Keeps only the start time and the angle of each
+ * animated cell, and computes the scale and rotation at draw time, so filling an area
+ * of any size creates no actions and draws all the animated blocks in a single pass.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class FillAnimation extends Actor implements Cullable {
+
+    private static final float SHRINK_DURATION = 0.1f;
+    private static final float GROW_DURATION = 0.15f;
+    private static final float DURATION = SHRINK_DURATION + GROW_DURATION;
+    private static final float MIN_SCALE = 0.5f;
+    private static final int MAX_ANGLE = 45;
+
+    private Block[][] blocks;
+    private int height;
+
+    private float[] startTimes;
+    private float[] angles;
+    private IntArray cells;
+    private float time;
+    private Rectangle cullingArea;
+
+    public FillAnimation(Block[][] blocks) {
+        this.blocks = blocks;
+        this.height = blocks[0].length;
+        this.startTimes = new float[blocks.length * height];
+        this.angles = new float[blocks.length * height];
+        this.cells = new IntArray();
+    }
+
+    /**
+     * Starts the animation of the given block, unless it is animated already.
+     */
+    public void start(Block block) {
+        if (block.isAnimated()) return;
+        int cell = (int) block.getX() * height + (int) block.getY();
+        startTimes[cell] = time;
+        angles[cell] = MathUtils.random(-MAX_ANGLE, MAX_ANGLE);
+        cells.add(cell);
+        block.setAnimated(true);
+    }
+
+    @Override
+    public void act(float delta) {
+        time += delta;
+        for (int i = cells.size - 1; i >= 0; i--) {
+            int cell = cells.get(i);
+            Block block = blocks[cell / height][cell % height];
+            if (time - startTimes[cell] >= DURATION || block.isEmpty()) {
+                block.setAnimated(false);
+                cells.removeIndex(i);
+            }
+        }
+    }
+
+    @Override
+    public void draw(SpriteBatch batch, float parentAlpha) {
+        for (int i = 0; i < cells.size; i++) {
+            int cell = cells.get(i);
+            Block block = blocks[cell / height][cell % height];
+            if (cullingArea != null && !cullingArea.contains(block.getX(), block.getY())) continue;
+            float elapsed = time - startTimes[cell];
+            float scale, rotation;
+            if (elapsed < SHRINK_DURATION) {
+                float progress = elapsed / SHRINK_DURATION;
+                scale = 1 - (1 - MIN_SCALE) * progress;
+                rotation = angles[cell] * progress;
+            } else {
+                float progress = Math.min((elapsed - SHRINK_DURATION) / GROW_DURATION, 1);
+                scale = MIN_SCALE + (1 - MIN_SCALE) * progress;
+                rotation = angles[cell] * (1 - progress);
+            }
+            batch.setColor(block.getColor());
+            batch.draw(block.getRegion(), block.getX(), block.getY(), block.getOriginX(), block.getOriginY(),
+                    block.getWidth(), block.getHeight(), scale, scale, rotation);
+        }
+    }
+
+    @Override
+    public void setCullingArea(Rectangle cullingArea) {
+        this.cullingArea = cullingArea;
+    }
+
+}
@@ -21,10 +21,10 @@ import com.badlogic.gdx.graphics.g2d.ParticleEffect;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Circle;
-import com.badlogic.gdx.scenes.scene2d.Action;
 import com.badlogic.gdx.scenes.scene2d.Actor;
-import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import net.ivang.axonix.main.profiling.Profiler;
+import net.ivang.axonix.main.quality.ScaledParticleEffect;
 
 /**
  * @author Ivan Gadzhega
@@ -32,8 +32,13 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
  */
 public class Bonus extends Actor {
 
+    private static final float FADE_OUT_DURATION = 0.35f;
+    private static final float REMOVE_DELAY = 0.15f;
+
     private Circle collisionCircle;
     private boolean active;
+    // time since the smooth removal has started
+    private float removalTime;
 
     private TextureRegion region;
     private ParticleEffect particleEffect;
@@ -51,7 +56,7 @@ public class Bonus extends Actor {
 
         this.region = skin.getRegion(regionName);
 
-        particleEffect = new ParticleEffect();
+        particleEffect = new ScaledParticleEffect();
         particleEffect.load(Gdx.files.internal(particlePath), skin.getAtlas());
         particleEffect.setPosition(x, y);
     }
@@ -59,7 +64,16 @@ public class Bonus extends Actor {
     @Override
     public void act(float deltaTime) {
         super.act(deltaTime);
+        Profiler.begin(Profiler.Phase.PARTICLES);
         particleEffect.update(deltaTime);
+        Profiler.end(Profiler.Phase.PARTICLES);
+        if (!active) {
+            removalTime += deltaTime;
+            getColor().a = Math.max(1 - removalTime / FADE_OUT_DURATION, 0);
+            if (removalTime >= FADE_OUT_DURATION + REMOVE_DELAY) {
+                remove();
+            }
+        }
     }
 
     @Override
@@ -71,11 +85,16 @@ public class Bonus extends Actor {
         particleEffect.draw(batch);
     }
 
+    public int getActiveParticlesNum() {
+        return ScaledParticleEffect.getActiveCount(particleEffect);
+    }
+
+    /**
+     * Fades the bonus out and then removes it from its group, see {@link #act(float)}.
+     */
     public void removeSmoothly() {
         active = false;
         particleEffect.allowCompletion();
-        Action sequence = Actions.sequence(Actions.fadeOut(0.35f), Actions.delay(0.15f), Actions.removeActor());
-        addAction(sequence);
     }
 
     //---------------------------------------------------------------------
@@ -0,0 +1,366 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level.enemies;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Circle;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.scenes.scene2d.Actor;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.utils.Cullable;
+import com.google.common.eventbus.Subscribe;
+import net.ivang.axonix.main.actors.game.level.bonuses.SlowBonus;
+import net.ivang.axonix.main.effects.EffectScheduler;
+import net.ivang.axonix.main.effects.SpeedEffect;
+import net.ivang.axonix.main.effects.Stat;
+import net.ivang.axonix.main.profiling.Profiler;
+import net.ivang.axonix.main.quality.ScaledParticleEffect;
+
+/**
+ * Keeps all enemies of a level in parallel primitive arrays
+ * and draws them in a single pass. The level moves them, since
+ * movement depends on collisions with the blocks.
+ * Enemies are addressed by their index, which never changes.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class EnemySystem extends Actor implements Cullable {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float SPEED = 4f;
+    private static final float SLOW_MULTIPLIER = 0.5f;
+    private static final float SLOW_DURATION = 10;
+    // collision circles are a bit smaller than the textures
+    private static final float COLLISION_INSET = 0.05f;
+
+    private int size;
+    private EnemyType[] types;
+    private float[] x;
+    private float[] y;
+    private float[] directionX;
+    private float[] directionY;
+    private float[] speed;
+    private float[] radius;
+    private boolean[] bouncingOffBlocks;
+    private boolean[] destroyingBlocks;
+    private boolean[] chasingTail;
+    private boolean[] movingClockwise;
+    private ParticleEffect[] particles;
+    private ParticleEffect[] slowParticles;
+
+    // shared by all the enemies, so the level-wide effects cost the same for any number of them
+    private Stat speedFactor;
+    private EffectScheduler effects;
+    private ParticleEffect slowParticleTemplate;
+    private boolean slowParticlesActive;
+    private boolean slowParticlesVisible;
+
+    private Rectangle cullingArea;
+
+    private Skin skin;
+    private ParticleEffect[] particleTemplates;
+    private TextureRegion[] regions;
+
+    public EnemySystem(Skin skin, EffectScheduler effects) {
+        this.skin = skin;
+        this.effects = effects;
+        this.particleTemplates = new ParticleEffect[EnemyType.values().length];
+        this.regions = new TextureRegion[EnemyType.values().length];
+        this.speedFactor = new Stat(1);
+
+        this.types = new EnemyType[INITIAL_CAPACITY];
+        this.x = new float[INITIAL_CAPACITY];
+        this.y = new float[INITIAL_CAPACITY];
+        this.directionX = new float[INITIAL_CAPACITY];
+        this.directionY = new float[INITIAL_CAPACITY];
+        this.speed = new float[INITIAL_CAPACITY];
+        this.radius = new float[INITIAL_CAPACITY];
+        this.bouncingOffBlocks = new boolean[INITIAL_CAPACITY];
+        this.destroyingBlocks = new boolean[INITIAL_CAPACITY];
+        this.chasingTail = new boolean[INITIAL_CAPACITY];
+        this.movingClockwise = new boolean[INITIAL_CAPACITY];
+        this.particles = new ParticleEffect[INITIAL_CAPACITY];
+        this.slowParticles = new ParticleEffect[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Adds a new enemy.
+     *
+     * @return index of the enemy
+     */
+    public int add(EnemyType type, float x, float y, Vector2 direction) {
+        if (size == types.length) {
+            resize(size * 2);
+        }
+        int i = size++;
+        this.types[i] = type;
+        this.x[i] = x;
+        this.y[i] = y;
+        this.directionX[i] = direction.x;
+        this.directionY[i] = direction.y;
+        this.speed[i] = SPEED;
+        this.radius[i] = type.getRadius();
+        this.bouncingOffBlocks[i] = type.isBouncingOffBlocks();
+        this.destroyingBlocks[i] = type.isDestroyingBlocks();
+        this.chasingTail[i] = type.isChasingTail();
+        this.movingClockwise[i] = !type.isBouncingOffBlocks() && MathUtils.randomBoolean();
+
+        ParticleEffect effect = new ScaledParticleEffect(getParticleTemplate(type));
+        effect.setPosition(x, y);
+        effect.start();
+        this.particles[i] = effect;
+        return i;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        updateSlowParticles();
+        // particles
+        Profiler.begin(Profiler.Phase.PARTICLES);
+        for (int i = 0; i < size; i++) {
+            particles[i].setPosition(x[i], y[i]);
+            particles[i].update(delta);
+        }
+        if (slowParticlesVisible) {
+            boolean complete = !slowParticlesActive;
+            for (int i = 0; i < size; i++) {
+                if (slowParticles[i] != null) {
+                    slowParticles[i].setPosition(x[i], y[i]);
+                    slowParticles[i].update(delta);
+                    complete &= slowParticles[i].isComplete();
+                }
+            }
+            slowParticlesVisible = !complete;
+        }
+        Profiler.end(Profiler.Phase.PARTICLES);
+    }
+
+    @Override
+    public void draw(SpriteBatch batch, float parentAlpha) {
+        for (int i = 0; i < size; i++) {
+            if (isVisible(i)) {
+                particles[i].draw(batch);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            TextureRegion region = getRegion(types[i]);
+            if (region != null && isVisible(i)) {
+                float r = radius[i];
+                batch.setColor(types[i].getColor());
+                batch.draw(region, x[i] - r, y[i] - r, r * 2, r * 2);
+            }
+        }
+        if (slowParticlesVisible) {
+            for (int i = 0; i < size; i++) {
+                if (slowParticles[i] != null && isVisible(i)) {
+                    slowParticles[i].draw(batch);
+                }
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Subscribers
+    //---------------------------------------------------------------------
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void onSlowBonus(SlowBonus bonus) {
+        slowParticleTemplate = bonus.getParticleEffect();
+        effects.schedule(new SpeedEffect(speedFactor, SLOW_MULTIPLIER, SLOW_DURATION));
+    }
+
+    @Override
+    public void setCullingArea(Rectangle cullingArea) {
+        this.cullingArea = cullingArea;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private boolean isVisible(int i) {
+        return cullingArea == null || cullingArea.contains(x[i], y[i]);
+    }
+
+    /**
+     * Starts or stops the slow bonus trails, when the enemies get slowed down or back to normal.
+     * One trail per enemy, however many bonuses are active.
+     */
+    private void updateSlowParticles() {
+        if (speedFactor.hasModifiers() == slowParticlesActive) return;
+        slowParticlesActive = !slowParticlesActive;
+        for (int i = 0; i < size; i++) {
+            if (slowParticlesActive) {
+                if (slowParticles[i] == null) {
+                    slowParticles[i] = new ScaledParticleEffect(slowParticleTemplate);
+                }
+                slowParticles[i].setPosition(x[i], y[i]);
+                slowParticles[i].start();
+            } else if (slowParticles[i] != null) {
+                slowParticles[i].allowCompletion();
+            }
+        }
+        slowParticlesVisible = size > 0;
+    }
+
+    private ParticleEffect getParticleTemplate(EnemyType type) {
+        int i = type.ordinal();
+        if (particleTemplates[i] == null) {
+            particleTemplates[i] = new ScaledParticleEffect();
+            particleTemplates[i].load(Gdx.files.internal(type.getParticlePath()), skin.getAtlas());
+        }
+        return particleTemplates[i];
+    }
+
+    private TextureRegion getRegion(EnemyType type) {
+        int i = type.ordinal();
+        if (regions[i] == null && type.getRegionName() != null) {
+            regions[i] = skin.getRegion(type.getRegionName());
+        }
+        return regions[i];
+    }
+
+    private void resize(int capacity) {
+        types = copyOf(types, new EnemyType[capacity]);
+        x = copyOf(x, capacity);
+        y = copyOf(y, capacity);
+        directionX = copyOf(directionX, capacity);
+        directionY = copyOf(directionY, capacity);
+        speed = copyOf(speed, capacity);
+        radius = copyOf(radius, capacity);
+        bouncingOffBlocks = copyOf(bouncingOffBlocks, capacity);
+        destroyingBlocks = copyOf(destroyingBlocks, capacity);
+        chasingTail = copyOf(chasingTail, capacity);
+        movingClockwise = copyOf(movingClockwise, capacity);
+        particles = copyOf(particles, new ParticleEffect[capacity]);
+        slowParticles = copyOf(slowParticles, new ParticleEffect[capacity]);
+    }
+
+    private float[] copyOf(float[] array, int capacity) {
+        float[] copy = new float[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    private boolean[] copyOf(boolean[] array, int capacity) {
+        boolean[] copy = new boolean[capacity];
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    private <T> T[] copyOf(T[] array, T[] copy) {
+        System.arraycopy(array, 0, copy, 0, size);
+        return copy;
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public int size() {
+        return size;
+    }
+
+    public int getActiveParticlesNum() {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            count += ScaledParticleEffect.getActiveCount(particles[i]);
+            count += ScaledParticleEffect.getActiveCount(slowParticles[i]);
+        }
+        return count;
+    }
+
+    public EnemyType getType(int i) {
+        return types[i];
+    }
+
+    public float getX(int i) {
+        return x[i];
+    }
+
+    public float getY(int i) {
+        return y[i];
+    }
+
+    public void setPosition(int i, float x, float y) {
+        this.x[i] = x;
+        this.y[i] = y;
+    }
+
+    public float getDirectionX(int i) {
+        return directionX[i];
+    }
+
+    public float getDirectionY(int i) {
+        return directionY[i];
+    }
+
+    public void setDirection(int i, float directionX, float directionY) {
+        this.directionX[i] = directionX;
+        this.directionY[i] = directionY;
+    }
+
+    /**
+     * @return current speed of the enemy, including the active slow bonuses
+     */
+    public float getSpeed(int i) {
+        return speed[i] * speedFactor.getValue();
+    }
+
+    public float getRadius(int i) {
+        return radius[i];
+    }
+
+    /**
+     * Fills the given circle with the collision bounds of the enemy.
+     *
+     * @return the given circle
+     */
+    public Circle getCollisionCircle(int i, Circle circle) {
+        circle.set(x[i], y[i], getCollisionRadius(i));
+        return circle;
+    }
+
+    public float getCollisionRadius(int i) {
+        return radius[i] - COLLISION_INSET;
+    }
+
+    public boolean isBouncingOffBlocks(int i) {
+        return bouncingOffBlocks[i];
+    }
+
+    public boolean isDestroyingBlocks(int i) {
+        return destroyingBlocks[i];
+    }
+
+    public boolean isChasingTail(int i) {
+        return chasingTail[i];
+    }
+
+    public boolean isMovingClockwise(int i) {
+        return movingClockwise[i];
+    }
+
+}
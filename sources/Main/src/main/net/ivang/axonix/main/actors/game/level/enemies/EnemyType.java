@@ -0,0 +1,86 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.game.level.enemies;
+
+import com.badlogic.gdx.graphics.Color;
+
+/**
+ * Static properties shared by all enemies of the same kind.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public enum EnemyType {
+
+    RED(0.5f, true, false, false, "circular_flare", new Color(1, 0.2f, 0.1f, 1), "data/particles/enemies/enemy_red.p"),
+    PURPLE(0.75f, true, true, false, "circular_flare", new Color(1, 0.2f, 1f, 1), "data/particles/enemies/enemy_purple.p"),
+    BLUE(0.5f, false, false, false, null, Color.WHITE, "data/particles/enemies/enemy_blue.p"),
+    // bounces around while there is no tail to chase
+    YELLOW(0.5f, true, false, true, "circular_flare", new Color(1, 0.85f, 0.1f, 1), "data/particles/enemies/enemy_yellow.p");
+
+    private final float radius;
+    private final boolean bouncingOffBlocks;
+    private final boolean destroyingBlocks;
+    private final boolean chasingTail;
+    private final String regionName;
+    private final Color color;
+    private final String particlePath;
+
+    private EnemyType(float radius, boolean bouncingOffBlocks, boolean destroyingBlocks, boolean chasingTail,
+                      String regionName, Color color, String particlePath) {
+        this.radius = radius;
+        this.bouncingOffBlocks = bouncingOffBlocks;
+        this.destroyingBlocks = destroyingBlocks;
+        this.chasingTail = chasingTail;
+        this.regionName = regionName;
+        this.color = color;
+        this.particlePath = particlePath;
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public float getRadius() {
+        return radius;
+    }
+
+    public boolean isBouncingOffBlocks() {
+        return bouncingOffBlocks;
+    }
+
+    public boolean isDestroyingBlocks() {
+        return destroyingBlocks;
+    }
+
+    public boolean isChasingTail() {
+        return chasingTail;
+    }
+
+    public String getRegionName() {
+        return regionName;
+    }
+
+    public Color getColor() {
+        return color;
+    }
+
+    public String getParticlePath() {
+        return particlePath;
+    }
+
+}
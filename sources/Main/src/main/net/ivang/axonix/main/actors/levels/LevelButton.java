@@ -16,6 +16,9 @@
 
 package net.ivang.axonix.main.actors.levels;
 
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
@@ -23,6 +26,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.Drawable;
 import com.badlogic.gdx.utils.Scaling;
+import com.badlogic.gdx.utils.StringBuilder;
 import com.esotericsoftware.tablelayout.Cell;
 import com.google.common.eventbus.EventBus;
 import net.ivang.axonix.main.events.facts.ButtonClickFact;
@@ -34,14 +38,18 @@ import net.ivang.axonix.main.events.intents.screen.GameScreenIntent;
  */
 public class LevelButton extends TextButton {
 
-    private final int levelIndex;
+    private static final float THUMBNAIL_ALPHA = 0.5f;
+
+    private int levelIndex;
+    private StringBuilder text;
+    private TextureRegion thumbnail;
     private Image[] starsArray;
     private Cell starsCell;
     private Style style;
 
-    public LevelButton(final int levelIndex, Style style, final EventBus eventBus) {
-        super(Integer.toString(levelIndex), style.buttonStyle);
-        this.levelIndex = levelIndex;
+    public LevelButton(int levelIndex, Style style, final EventBus eventBus) {
+        super(null, style.buttonStyle);
+        this.text = new StringBuilder(8);
         this.starsArray = new Image[3];
         this.style = style;
 
@@ -57,11 +65,12 @@ public class LevelButton extends TextButton {
         }
 
         starsCell = add(starTable);
+        setLevelIndex(levelIndex);
 
         addListener(new ChangeListener() {
             public void changed(ChangeEvent event, Actor actor) {
                 eventBus.post(new ButtonClickFact());
-                eventBus.post(new GameScreenIntent(levelIndex));
+                eventBus.post(new GameScreenIntent(getLevelIndex()));
             }
         });
     }
@@ -73,6 +82,20 @@ public class LevelButton extends TextButton {
         }
     }
 
+    @Override
+    protected void drawBackground(SpriteBatch batch, float parentAlpha) {
+        super.drawBackground(batch, parentAlpha);
+        if (thumbnail != null) {
+            // fit the thumbnail into the button, under the number and the stars
+            float width = getWidth() - 2 * style.thumbnailPad;
+            float height = width * thumbnail.getRegionHeight() / thumbnail.getRegionWidth();
+            Color color = getColor();
+            batch.setColor(color.r, color.g, color.b, color.a * parentAlpha * THUMBNAIL_ALPHA);
+            batch.draw(thumbnail, getX() + style.thumbnailPad, getY() + (getHeight() - height) / 2, width, height);
+            batch.setColor(Color.WHITE);
+        }
+    }
+
     public void setStyle(Style style) {
         starsCell.height(style.starsHeight);
         super.setStyle(style.buttonStyle);
@@ -87,6 +110,24 @@ public class LevelButton extends TextButton {
         return levelIndex;
     }
 
+    public TextureRegion getThumbnail() {
+        return thumbnail;
+    }
+
+    public void setThumbnail(TextureRegion thumbnail) {
+        this.thumbnail = thumbnail;
+    }
+
+    /**
+     * Binds the button to another level, the buttons are reused while scrolling.
+     */
+    public void setLevelIndex(int levelIndex) {
+        this.levelIndex = levelIndex;
+        text.setLength(0);
+        text.append(levelIndex);
+        getLabel().setText(text);
+    }
+
     //---------------------------------------------------------------------
     // Nested Classes
     //---------------------------------------------------------------------
@@ -95,5 +136,6 @@ public class LevelButton extends TextButton {
         public TextButtonStyle buttonStyle;
         public Drawable starOn, starOff;
         public float starsHeight;
+        public float thumbnailPad;
     }
 }
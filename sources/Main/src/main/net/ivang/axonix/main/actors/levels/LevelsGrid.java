@@ -0,0 +1,197 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.actors.levels;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.scenes.scene2d.ui.WidgetGroup;
+import com.badlogic.gdx.utils.Array;
+import com.google.common.eventbus.EventBus;
+import net.ivang.axonix.main.levels.LevelThumbnails;
+import net.ivang.axonix.main.preferences.PreferencesWrapper;
+import net.ivang.axonix.main.utils.ScoreUtils;
+
+/**
+ * Grid of the level buttons for a scroll pane. Only the rows within the culling area
+ * set by the pane are backed by buttons, which are rebound to other levels while scrolling,
+ * so the number of widgets and preference reads does not depend on the number of levels.
+ * The thumbnails of the bound levels stream in as they are rendered.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class LevelsGrid extends WidgetGroup {
+
+    private final int columns;
+    private final PreferencesWrapper preferences;
+    private final LevelThumbnails thumbnails;
+    private final EventBus eventBus;
+
+    private final Array<LevelButton> buttons;
+    private LevelButton.Style buttonStyle;
+    private float cellWidth, cellHeight, cellPad;
+
+    private int levelsNum;
+    // rows backed by the buttons, from the top
+    private int firstRow, lastRow;
+    private boolean bound;
+
+    public LevelsGrid(int columns, PreferencesWrapper preferences, LevelThumbnails thumbnails, EventBus eventBus) {
+        this.columns = columns;
+        this.preferences = preferences;
+        this.thumbnails = thumbnails;
+        this.eventBus = eventBus;
+        this.buttons = new Array<LevelButton>();
+    }
+
+    /**
+     * Rebinds the visible buttons, e.g. when the progress may have changed.
+     */
+    public void refresh() {
+        bound = false;
+    }
+
+    @Override
+    public void act(float delta) {
+        super.act(delta);
+        if (bound && thumbnails.update()) {
+            for (LevelButton button : buttons) {
+                if (button.isVisible() && button.getThumbnail() == null) {
+                    button.setThumbnail(thumbnails.get(button.getLevelIndex()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void layout() {
+        // the rows move along with the height
+        bound = false;
+    }
+
+    @Override
+    public void setCullingArea(Rectangle cullingArea) {
+        super.setCullingArea(cullingArea);
+        if (cullingArea == null || cellHeight <= 0) return;
+
+        float top = getFirstRowTop();
+        int first = Math.max((int) ((top - cullingArea.y - cullingArea.height) / cellHeight), 0);
+        int last = Math.min((int) ((top - cullingArea.y) / cellHeight), getRowsNum() - 1);
+        if (!bound || first != firstRow || last != lastRow) {
+            firstRow = first;
+            lastRow = last;
+            bindButtons();
+        }
+    }
+
+    @Override
+    public float getPrefWidth() {
+        return columns * cellWidth;
+    }
+
+    @Override
+    public float getPrefHeight() {
+        return getRowsNum() * cellHeight;
+    }
+
+    public void setStyle(LevelButton.Style buttonStyle, float buttonWidth, float buttonHeight, float buttonPad) {
+        this.buttonStyle = buttonStyle;
+        this.cellWidth = buttonWidth + 2 * buttonPad;
+        this.cellHeight = buttonHeight + 2 * buttonPad;
+        this.cellPad = buttonPad;
+        for (LevelButton button : buttons) {
+            button.setStyle(buttonStyle);
+        }
+        bound = false;
+        invalidateHierarchy();
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void bindButtons() {
+        int firstLevel = firstRow * columns + 1;
+        int lastLevel = Math.min((lastRow + 1) * columns, levelsNum);
+        int buttonsNum = Math.max(lastLevel - firstLevel + 1, 0);
+        while (buttons.size < buttonsNum) {
+            LevelButton button = new LevelButton(firstLevel, buttonStyle, eventBus);
+            buttons.add(button);
+            addActor(button);
+        }
+
+        float top = getFirstRowTop();
+        float left = Math.max((getWidth() - getPrefWidth()) / 2, 0);
+        for (int i = 0; i < buttons.size; i++) {
+            LevelButton button = buttons.get(i);
+            if (i < buttonsNum) {
+                int levelIndex = firstLevel + i;
+                int column = (levelIndex - 1) % columns;
+                int row = (levelIndex - 1) / columns;
+                button.setBounds(left + column * cellWidth + cellPad, top - (row + 1) * cellHeight + cellPad,
+                        cellWidth - 2 * cellPad, cellHeight - 2 * cellPad);
+                bindButton(button, levelIndex);
+                button.setVisible(true);
+            } else {
+                button.setVisible(false);
+            }
+        }
+        bound = true;
+    }
+
+    private void bindButton(LevelButton button, int levelIndex) {
+        button.setLevelIndex(levelIndex);
+        button.setThumbnail(thumbnails.get(levelIndex));
+        // disable button if its level number isn't first and there is no prefs for previous levels
+        if (levelIndex == 1 || preferences.containsLives(levelIndex - 1)) {
+            button.setColor(1f, 1f, 1f, 1f);
+            button.setDisabled(false);
+            // update the "star" rating
+            int score = preferences.getLevelScore(levelIndex);
+            button.setRating(ScoreUtils.getRatingByScore(score));
+        } else {
+            button.setColor(1f, 1f, 1f, 0.35f);
+            button.setDisabled(true);
+            button.setRating(0);
+        }
+    }
+
+    /**
+     * @return top of the first row, the grid is centered if the pane is larger
+     */
+    private float getFirstRowTop() {
+        return getHeight() - Math.max((getHeight() - getPrefHeight()) / 2, 0);
+    }
+
+    private int getRowsNum() {
+        return (levelsNum + columns - 1) / columns;
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public int getLevelsNum() {
+        return levelsNum;
+    }
+
+    public void setLevelsNum(int levelsNum) {
+        this.levelsNum = levelsNum;
+        bound = false;
+        invalidateHierarchy();
+    }
+
+}
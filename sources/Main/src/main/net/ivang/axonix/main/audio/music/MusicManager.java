@@ -29,19 +29,53 @@ import net.ivang.axonix.main.preferences.PreferencesWrapper;
 import net.ivang.axonix.main.screens.GameScreen;
 
 /**
+ * Plays music loops. Every loop is streamed from file and only the playing loops are kept open,
+ * except the one which is expected to be played next: it is opened in advance.
+ * Loops are crossfaded when switching between screens.
+ *
  * @author Ivan Gadzhega
  * @since 0.2
  */
 public class MusicManager {
 
-    private Loops currentLoop;
+    private static final float CROSSFADE_DURATION = 1.5f;
+    private static final float FADE_OUT_DURATION = 1f;
+    private static final float FADE_IN_DURATION = 0.5f;
+
     private float musicVolume;
 
+    private Track current;
+    private Track previous;
+    private Track prefetched;
+
     @Inject
     public MusicManager(PreferencesWrapper preferences, EventBus eventBus) {
         this.musicVolume = preferences.getMusicVolume();
         eventBus.register(this);
-        Loops.initAll();
+    }
+
+    /**
+     * Updates volume of the fading loops. Should be called once per frame.
+     */
+    public void update(float delta) {
+        if (current != null) {
+            current.update(delta);
+        }
+        if (previous != null && previous.update(delta)) {
+            recycle(previous);
+            previous = null;
+        }
+        // open the next loop when there is no crossfade in progress
+        if (current != null && previous == null && prefetched == null) {
+            prefetched = new Track(current.loop.next());
+        }
+    }
+
+    public void dispose() {
+        if (current != null) current.dispose();
+        if (previous != null) previous.dispose();
+        if (prefetched != null) prefetched.dispose();
+        current = previous = prefetched = null;
     }
 
     //---------------------------------------------------------------------
@@ -53,9 +87,9 @@ public class MusicManager {
     public void onMusicVolumeChange(MusicVolumeIntent intent) {
         musicVolume = intent.getVolume();
         if (musicVolume > 0) {
-            currentLoop.play(musicVolume);
+            current.fadeTo(musicVolume, 0);
         } else {
-            currentLoop.pause();
+            current.pause();
         }
     }
 
@@ -82,15 +116,15 @@ public class MusicManager {
     public void onGameScreenStateChange(GameScreen.State state) {
         switch (state) {
             case PLAYING:
-                currentLoop.play(musicVolume);
+                current.fadeTo(musicVolume, FADE_IN_DURATION);
                 break;
             case PAUSED:
-                currentLoop.pause();
+                current.pause();
                 break;
             case LEVEL_COMPLETED:
             case GAME_OVER:
             case WIN:
-                currentLoop.stop();
+                current.fadeTo(0, FADE_OUT_DURATION);
                 break;
         }
     }
@@ -100,14 +134,42 @@ public class MusicManager {
     //---------------------------------------------------------------------
 
     private void setCurrentLoop(Loops loop) {
-        if (currentLoop != loop) {
-            // stop the previous loop
-            if (currentLoop != null) {
-                currentLoop.stop();
+        if (current != null && current.loop == loop) {
+            return;
+        }
+        // get the new loop: switched back during the crossfade, prefetched or not opened yet
+        Track next;
+        if (previous != null && previous.loop == loop) {
+            next = previous;
+            previous = null;
+        } else if (prefetched != null && prefetched.loop == loop) {
+            next = prefetched;
+            prefetched = null;
+        } else {
+            next = new Track(loop);
+        }
+        // fade out the current loop
+        if (current != null) {
+            if (previous != null) {
+                recycle(previous);
             }
-            // play new loop
-            currentLoop = loop;
-            currentLoop.play(musicVolume);
+            previous = current;
+            previous.fadeTo(0, CROSSFADE_DURATION);
+        }
+        // fade in the new one
+        current = next;
+        current.fadeTo(musicVolume, (previous != null) ? CROSSFADE_DURATION : 0);
+    }
+
+    /**
+     * Keeps the stopped loop if it is expected to be played next, otherwise releases it.
+     */
+    private void recycle(Track track) {
+        track.stop();
+        if (prefetched == null && current != null && track.loop == current.loop.next()) {
+            prefetched = track;
+        } else {
+            track.dispose();
         }
     }
 
@@ -120,49 +182,78 @@ public class MusicManager {
         GAME("data/audio/music/loop_game.ogg");
 
         private final String path;
-        private Music music;
 
         private Loops(String path) {
             this.path = path;
         }
 
         /**
-         * Initializes music from internal file by path.
-         *
-         * Should be called outside, because on android static classes may keep on living even though
-         * the game has been closed and then music will not be reinitialized properly after reopening.
+         * @return the loop which is most likely to be played after this one
          */
-        public void init() {
-            this.music = Gdx.audio.newMusic(Gdx.files.internal(path));
-            music.setLooping(true);
+        public Loops next() {
+            return values()[(ordinal() + 1) % values().length];
         }
 
-        /**
-         * Initializes all music loops for this enum.
-         *
-         * Should be called outside, because on android static classes may keep on living even though
-         * the game has been closed and then music will not be reinitialized properly after reopening.
-         */
+    }
 
-        public static void initAll() {
-            for (Loops loop : values()) {
-                loop.init();
-            }
+    /**
+     * Music loop streamed from file with the fading volume.
+     */
+    private static class Track {
+
+        private final Loops loop;
+        private final Music music;
+
+        private float volume;
+        private float targetVolume;
+        private float fadeSpeed;
+
+        private Track(Loops loop) {
+            this.loop = loop;
+            this.music = Gdx.audio.newMusic(Gdx.files.internal(loop.path));
+            music.setLooping(true);
         }
 
-        public void play(float volume) {
-            music.setVolume(volume);
+        public void fadeTo(float volume, float duration) {
+            this.targetVolume = volume;
+            this.fadeSpeed = (duration > 0) ? Math.abs(volume - this.volume) / duration : Float.MAX_VALUE;
             if (volume > 0 && !music.isPlaying()) {
+                music.setVolume(this.volume);
                 music.play();
             }
         }
 
+        /**
+         * @return true if the loop has faded out and stopped
+         */
+        public boolean update(float delta) {
+            if (volume != targetVolume) {
+                float step = fadeSpeed * delta;
+                if (volume < targetVolume) {
+                    volume = Math.min(volume + step, targetVolume);
+                } else {
+                    volume = Math.max(volume - step, targetVolume);
+                }
+                music.setVolume(volume);
+                if (volume == 0) {
+                    music.stop();
+                    return true;
+                }
+            }
+            return false;
+        }
+
         public void pause() {
             music.pause();
         }
 
         public void stop() {
             music.stop();
+            volume = targetVolume = 0;
+        }
+
+        public void dispose() {
+            music.dispose();
         }
 
     }
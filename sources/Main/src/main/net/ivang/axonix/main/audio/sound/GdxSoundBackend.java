@@ -14,25 +14,26 @@
  * the License.
  */
 
-package net.ivang.axonix.main.actors.game.level.enemies;
+package net.ivang.axonix.main.audio.sound;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.scenes.scene2d.ui.Skin;
-import com.google.common.eventbus.EventBus;
+import net.ivang.axonix.main.audio.sound.wrappers.SimpleSoundWrapper;
+import net.ivang.axonix.main.audio.sound.wrappers.SoundWrapper;
 
 /**
+ * Plays sounds via the {@link com.badlogic.gdx.audio.Sound} of the current platform.
+ *
  * @author Ivan Gadzhega
- * @since 0.4
+ * @since 0.5
  */
-public class RedEnemy extends Enemy {
+public class GdxSoundBackend implements SoundBackend {
+
+    @Override
+    public SoundWrapper newSound(String path) {
+        return new SimpleSoundWrapper(path);
+    }
 
-    public RedEnemy(float x, float y, Skin skin, EventBus eventBus) {
-        super(x, y, 0.5f, Direction.getRandomDiagonal(), eventBus);
-        this.bouncingOffBlocks = true;
-        // appearance
-        setColor(1, 0.2f, 0.1f, 1);
-        this.region = skin.getRegion("circular_flare");
-        particleEffect.load(Gdx.files.internal("data/particles/enemies/enemy_red.p"), skin.getAtlas());
+    @Override
+    public void dispose() {
     }
 
 }
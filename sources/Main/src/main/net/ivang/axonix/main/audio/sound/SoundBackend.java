@@ -0,0 +1,33 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound;
+
+import net.ivang.axonix.main.audio.sound.wrappers.SoundWrapper;
+
+/**
+ * Creates sound wrappers for the particular audio output.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public interface SoundBackend {
+
+    SoundWrapper newSound(String path);
+
+    void dispose();
+
+}
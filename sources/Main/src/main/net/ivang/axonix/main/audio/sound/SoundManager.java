@@ -21,9 +21,7 @@ import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import net.ivang.axonix.main.actors.game.level.Protagonist;
 import net.ivang.axonix.main.actors.game.level.bonuses.Bonus;
-import net.ivang.axonix.main.audio.sound.wrappers.CustomSoundWrapper;
 import net.ivang.axonix.main.audio.sound.wrappers.SequentialSoundWrapper;
-import net.ivang.axonix.main.audio.sound.wrappers.SimpleSoundWrapper;
 import net.ivang.axonix.main.audio.sound.wrappers.SoundWrapper;
 import net.ivang.axonix.main.events.facts.ButtonClickFact;
 import net.ivang.axonix.main.events.facts.EnemyBounceFact;
@@ -34,19 +32,40 @@ import net.ivang.axonix.main.events.intents.DefaultIntent;
 import net.ivang.axonix.main.events.intents.SfxVolumeIntent;
 import net.ivang.axonix.main.preferences.PreferencesWrapper;
 
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * @author Ivan Gadzhega
  * @since 0.2
  */
 public class SoundManager {
 
+    private static final int MAX_VOICES = 8;
+
     private float sfxVolume;
+    private SoundBackend backend;
+    private SoundMixer mixer;
+    private Map<Sounds, SoundMixer.Channel> channels;
 
     @Inject
-    public SoundManager(PreferencesWrapper preferences, EventBus eventBus) {
+    public SoundManager(PreferencesWrapper preferences, SoundBackend backend, EventBus eventBus) {
         this.sfxVolume = preferences.getSfxVolume();
+        this.backend = backend;
         eventBus.register(this);
-        Sounds.initAll();
+        initMixer();
+    }
+
+    /**
+     * Plays the sounds requested during the frame. Should be called once per frame.
+     */
+    public void update(float delta) {
+        mixer.update(delta);
+    }
+
+    public void dispose() {
+        mixer.stopAll();
+        backend.dispose();
     }
 
     //---------------------------------------------------------------------
@@ -58,19 +77,19 @@ public class SoundManager {
     public void onSfxVolumeChange(SfxVolumeIntent intent) {
         sfxVolume = intent.getVolume();
         // play sample sound
-        Sounds.ENEMY_BOUNCE.play(sfxVolume);
+        play(Sounds.ENEMY_BOUNCE);
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onEnemyBounce(EnemyBounceFact fact) {
-        Sounds.ENEMY_BOUNCE.play(sfxVolume);
+        play(Sounds.ENEMY_BOUNCE);
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onNewTailBlock(TailBlockFact fact) {
-        Sounds.TAIL_BLOCK.play(sfxVolume);
+        play(Sounds.TAIL_BLOCK);
     }
 
     @Subscribe
@@ -78,99 +97,114 @@ public class SoundManager {
     public void onPointsObtained(ObtainedPointsFact fact) {
         int points = fact.getPoints();
         if (points < ObtainedPointsFact.QUANTITY_1) {
-            Sounds.FILLING_SHORT_1.play(sfxVolume);
+            play(Sounds.FILLING_SHORT_1);
         } else if (points < ObtainedPointsFact.QUANTITY_2){
-            Sounds.FILLING_SHORT_2.play(sfxVolume);
+            play(Sounds.FILLING_SHORT_2);
         } else if (points < ObtainedPointsFact.QUANTITY_3) {
-            Sounds.FILLING_SHORT_3.play(sfxVolume);
+            play(Sounds.FILLING_SHORT_3);
         } else {
-            Sounds.FILLING.play(sfxVolume);
+            play(Sounds.FILLING);
         }
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onBonusObtained(Bonus bonus) {
-        Sounds.BONUS.play(sfxVolume);
+        play(Sounds.BONUS);
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onProtagonistStateChange(Protagonist.State state) {
         if (state == Protagonist.State.DYING) {
-            Sounds.PROT_DYING.play(sfxVolume);
+            play(Sounds.PROT_DYING);
         }
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onButtonClick(ButtonClickFact fact) {
-        Sounds.BUTTON_CLICK.play(sfxVolume);
+        play(Sounds.BUTTON_CLICK);
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onDefaultIntent(DefaultIntent intent) {
-        Sounds.BUTTON_CLICK.play(sfxVolume);
+        play(Sounds.BUTTON_CLICK);
     }
 
     @Subscribe
     @SuppressWarnings("unused")
     public void onBackIntent(BackIntent intent) {
-        Sounds.BACK_INTENT.play(sfxVolume);
+        play(Sounds.BACK_INTENT);
     }
 
     //---------------------------------------------------------------------
-    // Nested Classes
+    // Helper methods
     //---------------------------------------------------------------------
 
-    private enum Sounds {
-        ENEMY_BOUNCE("data/audio/sounds/enemy_bounce.ogg", false, 150, 100),
-        BUTTON_CLICK("data/audio/sounds/button_click.ogg", false, 100, 0),
-        BACK_INTENT("data/audio/sounds/back_intent.ogg"),
-        PROT_DYING("data/audio/sounds/prot_dying.ogg"),
-        TAIL_BLOCK("data/audio/sounds/tail_block.ogg"),
-        BONUS("data/audio/sounds/bonus.ogg"),
-        FILLING_SHORT_1("data/audio/sounds/filling_short_1.ogg"),
-        FILLING_SHORT_2("data/audio/sounds/filling_short_2.ogg"),
-        FILLING_SHORT_3("data/audio/sounds/filling_short_3.ogg"),
-        FILLING("data/audio/sounds/filling_1.ogg",
-                "data/audio/sounds/filling_2.ogg",
-                "data/audio/sounds/filling_3.ogg");
-
-        private final SoundWrapper sound;
-
-        private Sounds(String path) {
-            this.sound = new SimpleSoundWrapper(path);
+    private void initMixer() {
+        mixer = new SoundMixer(MAX_VOICES);
+        channels = new EnumMap<Sounds, SoundMixer.Channel>(Sounds.class);
+        for (Sounds sound : Sounds.values()) {
+            SoundWrapper wrapper = newSoundWrapper(sound.paths);
+            wrapper.init();
+            SoundMixer.Channel channel = mixer.addChannel(wrapper, sound.priority,
+                    sound.maxInstances, sound.duration, sound.retrigger);
+            channels.put(sound, channel);
         }
+    }
 
-        private Sounds(String path, boolean concurrent, int gapMin, int gapRange) {
-            this.sound = new CustomSoundWrapper(path, concurrent, gapMin, gapRange);
+    private SoundWrapper newSoundWrapper(String... paths) {
+        if (paths.length == 1) {
+            return backend.newSound(paths[0]);
         }
-
-        private Sounds(String... paths) {
-            this.sound = new SequentialSoundWrapper(paths);
+        SoundWrapper[] sounds = new SoundWrapper[paths.length];
+        for (int i = 0; i < paths.length; i++) {
+            sounds[i] = backend.newSound(paths[i]);
         }
+        return new SequentialSoundWrapper(sounds);
+    }
 
-        /**
-         * Initializes all sound wrappers for this enum.
-         *
-         * Should be called outside, because on android static classes may keep on living even though
-         * the game has been closed and then music will not be reinitialized properly after reopening.
-         */
-
-        public static void initAll() {
-            for (Sounds sound : values()) {
-                sound.init();
-            }
-        }
+    private void play(Sounds sound) {
+        mixer.play(channels.get(sound), sfxVolume);
+    }
 
-        public void init() {
-            sound.init();
-        }
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
 
-        public long play(float volume) {
-            return sound.play(volume);
+    /**
+     * The durations are the lengths of the clips in seconds: the backends cannot tell
+     * when a sound ends, so the mixer counts an instance as playing for that long.
+     */
+    private enum Sounds {
+        // a single retriggered instance, the overlapping bounces clap on Android
+        ENEMY_BOUNCE(1, 1, 0.7f, true, "data/audio/sounds/enemy_bounce.ogg"),
+        TAIL_BLOCK(2, 2, 0.32f, false, "data/audio/sounds/tail_block.ogg"),
+        BUTTON_CLICK(3, 1, 0.93f, true, "data/audio/sounds/button_click.ogg"),
+        BACK_INTENT(3, 1, 0.93f, true, "data/audio/sounds/back_intent.ogg"),
+        FILLING_SHORT_1(4, 1, 4.45f, true, "data/audio/sounds/filling_short_1.ogg"),
+        FILLING_SHORT_2(4, 1, 4.45f, true, "data/audio/sounds/filling_short_2.ogg"),
+        FILLING_SHORT_3(4, 1, 4.45f, true, "data/audio/sounds/filling_short_3.ogg"),
+        FILLING(4, 2, 4.96f, false, "data/audio/sounds/filling_1.ogg",
+                                    "data/audio/sounds/filling_2.ogg",
+                                    "data/audio/sounds/filling_3.ogg"),
+        BONUS(4, 2, 2.13f, false, "data/audio/sounds/bonus.ogg"),
+        PROT_DYING(5, 1, 2.14f, true, "data/audio/sounds/prot_dying.ogg");
+
+        private final String[] paths;
+        private final int priority;
+        private final int maxInstances;
+        private final float duration;
+        private final boolean retrigger;
+
+        private Sounds(int priority, int maxInstances, float duration, boolean retrigger, String... paths) {
+            this.paths = paths;
+            this.priority = priority;
+            this.maxInstances = maxInstances;
+            this.duration = duration;
+            this.retrigger = retrigger;
         }
     }
 }
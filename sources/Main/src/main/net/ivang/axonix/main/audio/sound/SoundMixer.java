@@ -0,0 +1,224 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound;
+
+import net.ivang.axonix.main.audio.sound.wrappers.SoundWrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the number of simultaneously playing sounds within the voice budget.
+ *
+ * Play requests are collected during the frame and flushed once per frame by {@link #update(float)}.
+ * Repeated requests for the same channel within a frame are coalesced into a single voice,
+ * each next concurrent voice of the same channel is attenuated. When the budget is exhausted,
+ * the voice of a channel with lower priority is stolen, otherwise the request is dropped.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class SoundMixer {
+
+    private static final float REPEAT_ATTENUATION = 0.6f;
+
+    private final List<Channel> channels;
+    private final Voice[] voices;
+    private int activeVoices;
+    private float time;
+
+    public SoundMixer(int maxVoices) {
+        this.channels = new ArrayList<Channel>();
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            voices[i] = new Voice();
+        }
+    }
+
+    /**
+     * Adds the new channel to the mixer.
+     *
+     * @param sound sound to be played
+     * @param priority voices of the channels with higher priority may steal voices of lower ones
+     * @param maxInstances max number of concurrent voices of this channel
+     * @param duration the time in seconds the voice is considered as playing
+     * @param retrigger whether the oldest voice of this channel should be replaced when
+     *                  the max number of instances is reached, instead of dropping the request
+     * @return the new channel
+     */
+    public Channel addChannel(SoundWrapper sound, int priority, int maxInstances, float duration, boolean retrigger) {
+        Channel channel = new Channel(sound, priority, maxInstances, duration, retrigger);
+        // keep channels ordered by priority
+        int index = 0;
+        while (index < channels.size() && channels.get(index).priority >= priority) {
+            index++;
+        }
+        channels.add(index, channel);
+        return channel;
+    }
+
+    public void play(Channel channel, float volume) {
+        if (volume > channel.requestedVolume) {
+            channel.requestedVolume = volume;
+        }
+    }
+
+    public void update(float delta) {
+        time += delta;
+        // release finished voices
+        for (Voice voice : voices) {
+            if (voice.channel != null && voice.endTime <= time) {
+                release(voice);
+            }
+        }
+        // flush requests of this frame
+        for (Channel channel : channels) {
+            if (channel.requestedVolume > 0) {
+                flush(channel);
+                channel.requestedVolume = 0;
+            }
+        }
+    }
+
+    public void stopAll() {
+        for (Voice voice : voices) {
+            if (voice.channel != null) {
+                voice.channel.sound.stop(voice.soundId);
+                release(voice);
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void flush(Channel channel) {
+        Voice voice = null;
+        if (channel.activeVoices >= channel.maxInstances) {
+            if (channel.retrigger) {
+                voice = findOldestVoice(channel);
+            }
+        } else if (activeVoices >= voices.length) {
+            voice = findLowPriorityVoice(channel.priority);
+        } else {
+            voice = findFreeVoice();
+        }
+
+        if (voice != null) {
+            // stop the previous voice only after the new one has been started
+            // (workaround to avoid clapping on android)
+            Channel prevChannel = voice.channel;
+            long prevSoundId = voice.soundId;
+            if (prevChannel != null) {
+                release(voice);
+            }
+
+            float volume = channel.requestedVolume;
+            for (int i = 0; i < channel.activeVoices; i++) {
+                volume *= REPEAT_ATTENUATION;
+            }
+            long soundId = channel.sound.play(volume);
+
+            if (prevChannel != null) {
+                prevChannel.sound.stop(prevSoundId);
+            }
+            if (soundId != -1) {
+                acquire(voice, channel, soundId);
+            }
+        }
+    }
+
+    private void acquire(Voice voice, Channel channel, long soundId) {
+        voice.channel = channel;
+        voice.soundId = soundId;
+        voice.startTime = time;
+        voice.endTime = time + channel.duration;
+        channel.activeVoices++;
+        activeVoices++;
+    }
+
+    private void release(Voice voice) {
+        voice.channel.activeVoices--;
+        voice.channel = null;
+        activeVoices--;
+    }
+
+    private Voice findFreeVoice() {
+        for (Voice voice : voices) {
+            if (voice.channel == null) {
+                return voice;
+            }
+        }
+        return null;
+    }
+
+    private Voice findOldestVoice(Channel channel) {
+        Voice oldest = null;
+        for (Voice voice : voices) {
+            if (voice.channel == channel && (oldest == null || voice.startTime < oldest.startTime)) {
+                oldest = voice;
+            }
+        }
+        return oldest;
+    }
+
+    private Voice findLowPriorityVoice(int priority) {
+        Voice victim = null;
+        for (Voice voice : voices) {
+            Channel channel = voice.channel;
+            if (channel != null && channel.priority < priority) {
+                if (victim == null || channel.priority < victim.channel.priority
+                        || channel.priority == victim.channel.priority && voice.startTime < victim.startTime) {
+                    victim = voice;
+                }
+            }
+        }
+        return victim;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public static class Channel {
+        private final SoundWrapper sound;
+        private final int priority;
+        private final int maxInstances;
+        private final float duration;
+        private final boolean retrigger;
+
+        private float requestedVolume;
+        private int activeVoices;
+
+        private Channel(SoundWrapper sound, int priority, int maxInstances, float duration, boolean retrigger) {
+            this.sound = sound;
+            this.priority = priority;
+            this.maxInstances = maxInstances;
+            this.duration = duration;
+            this.retrigger = retrigger;
+        }
+    }
+
+    private static class Voice {
+        private Channel channel;
+        private long soundId;
+        private float startTime;
+        private float endTime;
+    }
+
+}
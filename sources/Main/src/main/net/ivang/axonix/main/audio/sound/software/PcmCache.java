@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound.software;
+
+import com.badlogic.gdx.Gdx;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decodes every sound file only once and keeps its samples converted
+ * to the output format of the mixer.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class PcmCache {
+
+    private final PcmDecoder decoder;
+    private final int channels;
+    private final int sampleRate;
+    private final Map<String, PcmData> cache;
+
+    public PcmCache(PcmDecoder decoder, int channels, int sampleRate) {
+        this.decoder = decoder;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+        this.cache = new HashMap<String, PcmData>();
+    }
+
+    public synchronized PcmData get(String path) {
+        PcmData data = cache.get(path);
+        if (data == null) {
+            data = convert(decoder.decode(Gdx.files.internal(path)));
+            cache.put(path, data);
+        }
+        return data;
+    }
+
+    public synchronized void clear() {
+        cache.clear();
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private PcmData convert(PcmData data) {
+        if (data.getChannels() == channels && data.getSampleRate() == sampleRate) {
+            return data;
+        }
+
+        short[] src = data.getSamples();
+        int srcChannels = data.getChannels();
+        int srcFrames = data.getFrames();
+        int frames = (int) ((long) srcFrames * sampleRate / data.getSampleRate());
+        short[] samples = new short[frames * channels];
+
+        for (int frame = 0; frame < frames; frame++) {
+            // linear interpolation between two nearest source frames
+            float srcPos = (float) frame * data.getSampleRate() / sampleRate;
+            int srcFrame = (int) srcPos;
+            int nextFrame = Math.min(srcFrame + 1, srcFrames - 1);
+            float fraction = srcPos - srcFrame;
+            for (int channel = 0; channel < channels; channel++) {
+                int srcChannel = Math.min(channel, srcChannels - 1);
+                short a = src[srcFrame * srcChannels + srcChannel];
+                short b = src[nextFrame * srcChannels + srcChannel];
+                samples[frame * channels + channel] = (short) (a + (b - a) * fraction);
+            }
+        }
+
+        return new PcmData(samples, channels, sampleRate);
+    }
+
+}
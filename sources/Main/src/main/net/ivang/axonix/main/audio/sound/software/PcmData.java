@@ -0,0 +1,57 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound.software;
+
+/**
+ * Decoded 16-bit interleaved PCM samples.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class PcmData {
+
+    private final short[] samples;
+    private final int channels;
+    private final int sampleRate;
+
+    public PcmData(short[] samples, int channels, int sampleRate) {
+        this.samples = samples;
+        this.channels = channels;
+        this.sampleRate = sampleRate;
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public short[] getSamples() {
+        return samples;
+    }
+
+    public int getChannels() {
+        return channels;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getFrames() {
+        return samples.length / channels;
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound.software;
+
+import net.ivang.axonix.main.audio.sound.wrappers.SoundWrapper;
+
+/**
+ * Plays cached PCM samples via the software mixer.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class PcmSoundWrapper implements SoundWrapper {
+
+    private final String path;
+    private final PcmCache cache;
+    private final SoftwareMixer mixer;
+
+    private PcmData data;
+
+    public PcmSoundWrapper(String path, PcmCache cache, SoftwareMixer mixer) {
+        this.path = path;
+        this.cache = cache;
+        this.mixer = mixer;
+    }
+
+    public void init() {
+        this.data = cache.get(path);
+    }
+
+    public long play(float volume) {
+        return mixer.play(data, volume, 0);
+    }
+
+    public void stop(long soundId) {
+        mixer.stop(soundId);
+    }
+
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound.software;
+
+import com.badlogic.gdx.audio.AudioDevice;
+
+/**
+ * Mixes active voices of pre-decoded PCM samples into a single stream.
+ *
+ * The mixer may be driven by the dedicated audio thread writing into an {@link AudioDevice},
+ * or directly via {@link #mix(short[], int)}, e.g. to render into a buffer without audio output.
+ * Voices start at the exact frame they were scheduled to, so the latency is always equal
+ * to the length of the output buffer.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class SoftwareMixer {
+
+    private final int channels;
+    private final Voice[] voices;
+    private final float[] mixBuffer;
+
+    private long nextId;
+    private long cursor;
+    private volatile long mixTime;
+
+    private AudioThread audioThread;
+
+    public SoftwareMixer(int channels, int maxVoices, int bufferFrames) {
+        this.channels = channels;
+        this.voices = new Voice[maxVoices];
+        for (int i = 0; i < maxVoices; i++) {
+            voices[i] = new Voice();
+        }
+        this.mixBuffer = new float[bufferFrames * channels];
+    }
+
+    /**
+     * Schedules the new voice.
+     *
+     * @param delayFrames number of frames to wait before the voice starts
+     * @return the id of the voice or -1 if there are no free voices
+     */
+    public synchronized long play(PcmData data, float volume, int delayFrames) {
+        for (Voice voice : voices) {
+            if (voice.data == null) {
+                voice.data = data;
+                voice.volume = volume;
+                voice.position = 0;
+                voice.startFrame = cursor + delayFrames;
+                voice.id = nextId++;
+                return voice.id;
+            }
+        }
+        return -1;
+    }
+
+    public synchronized void stop(long id) {
+        for (Voice voice : voices) {
+            if (voice.data != null && voice.id == id) {
+                voice.data = null;
+            }
+        }
+    }
+
+    public synchronized void stopAll() {
+        for (Voice voice : voices) {
+            voice.data = null;
+        }
+    }
+
+    /**
+     * Mixes the next frames of all active voices.
+     *
+     * @param out interleaved output samples
+     * @param frames number of frames to mix, should not exceed the buffer size of the mixer
+     */
+    public synchronized void mix(short[] out, int frames) {
+        long startTime = System.nanoTime();
+        int length = frames * channels;
+
+        for (int i = 0; i < length; i++) {
+            mixBuffer[i] = 0;
+        }
+
+        for (Voice voice : voices) {
+            if (voice.data != null) {
+                mixVoice(voice, frames);
+            }
+        }
+
+        for (int i = 0; i < length; i++) {
+            float sample = mixBuffer[i];
+            if (sample > Short.MAX_VALUE) sample = Short.MAX_VALUE;
+            if (sample < Short.MIN_VALUE) sample = Short.MIN_VALUE;
+            out[i] = (short) sample;
+        }
+
+        cursor += frames;
+        mixTime = System.nanoTime() - startTime;
+    }
+
+    public void start(AudioDevice device) {
+        if (audioThread == null) {
+            audioThread = new AudioThread(device, mixBuffer.length / channels);
+            audioThread.start();
+        }
+    }
+
+    public void dispose() {
+        if (audioThread != null) {
+            audioThread.running = false;
+            audioThread = null;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void mixVoice(Voice voice, int frames) {
+        int offset = (int) Math.max(0, voice.startFrame - cursor);
+        if (offset >= frames) return;
+
+        short[] samples = voice.data.getSamples();
+        int srcIndex = voice.position * channels;
+        int srcLength = samples.length;
+        int dstIndex = offset * channels;
+        int dstLength = frames * channels;
+
+        while (dstIndex < dstLength && srcIndex < srcLength) {
+            mixBuffer[dstIndex++] += samples[srcIndex++] * voice.volume;
+        }
+
+        if (srcIndex >= srcLength) {
+            voice.data = null;
+        } else {
+            voice.position = srcIndex / channels;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    /**
+     * @return the time in nanoseconds spent to mix the last buffer
+     */
+    public long getMixTime() {
+        return mixTime;
+    }
+
+    public int getLatencyFrames() {
+        return mixBuffer.length / channels;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    private static class Voice {
+        private PcmData data;
+        private float volume;
+        private int position;
+        private long startFrame;
+        private long id;
+    }
+
+    private class AudioThread extends Thread {
+
+        private final AudioDevice device;
+        private final short[] buffer;
+        private final int frames;
+        private volatile boolean running;
+
+        private AudioThread(AudioDevice device, int frames) {
+            super("software-mixer");
+            setDaemon(true);
+            this.device = device;
+            this.frames = frames;
+            this.buffer = new short[frames * channels];
+            this.running = true;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                mix(buffer, frames);
+                // blocks until the device is ready to accept the samples
+                device.writeSamples(buffer, 0, buffer.length);
+            }
+            device.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.audio.sound.software;
+
+import com.badlogic.gdx.Gdx;
+import net.ivang.axonix.main.audio.sound.SoundBackend;
+import net.ivang.axonix.main.audio.sound.wrappers.SoundWrapper;
+
+/**
+ * Mixes all the sounds in software and writes the result into a single {@link com.badlogic.gdx.audio.AudioDevice}.
+ * Sound files are decoded only once by the platform specific {@link PcmDecoder}.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class SoftwareSoundBackend implements SoundBackend {
+
+    private static final int CHANNELS = 2;
+    private static final int SAMPLE_RATE = 44100;
+    private static final int MAX_VOICES = 16;
+    private static final int BUFFER_FRAMES = 1024;
+
+    private final PcmCache cache;
+    private final SoftwareMixer mixer;
+    private boolean started;
+
+    public SoftwareSoundBackend(PcmDecoder decoder) {
+        this.cache = new PcmCache(decoder, CHANNELS, SAMPLE_RATE);
+        this.mixer = new SoftwareMixer(CHANNELS, MAX_VOICES, BUFFER_FRAMES);
+    }
+
+    @Override
+    public SoundWrapper newSound(String path) {
+        // the device is created lazily, as the backend may be instantiated before the audio is available
+        if (!started) {
+            mixer.start(Gdx.audio.newAudioDevice(SAMPLE_RATE, CHANNELS == 1));
+            started = true;
+        }
+        return new PcmSoundWrapper(path, cache, mixer);
+    }
+
+    @Override
+    public void dispose() {
+        mixer.dispose();
+        cache.clear();
+        started = false;
+    }
+
+    public SoftwareMixer getMixer() {
+        return mixer;
+    }
+
+}
@@ -15,28 +15,22 @@
  */
 package net.ivang.axonix.main.audio.sound.wrappers;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.audio.Sound;
-
 /**
  * @author Ivan Gadzhega
  * @since 0.2
  */
 public class SequentialSoundWrapper implements SoundWrapper {
 
-    private final String[] paths;
-
-    private Sound[] sounds;
+    private final SoundWrapper[] sounds;
     private int index;
 
-    public SequentialSoundWrapper(String... paths) {
-        this.paths = paths;
+    public SequentialSoundWrapper(SoundWrapper... sounds) {
+        this.sounds = sounds;
     }
 
     public void init() {
-        this.sounds = new Sound[paths.length];
-        for (int i = 0; i < paths.length; i++) {
-            sounds[i] = Gdx.audio.newSound(Gdx.files.internal(paths[i]));
+        for (SoundWrapper sound : sounds) {
+            sound.init();
         }
     }
 
@@ -48,4 +42,11 @@ public class SequentialSoundWrapper implements SoundWrapper {
         }
         return newId;
     }
+
+    public void stop(long soundId) {
+        // sound ids are unique across all the sounds of the backend
+        for (SoundWrapper sound : sounds) {
+            sound.stop(soundId);
+        }
+    }
 }
@@ -40,4 +40,8 @@ public class SimpleSoundWrapper implements SoundWrapper {
         return sound.play(volume);
     }
 
+    public void stop(long soundId) {
+        sound.stop(soundId);
+    }
+
 }
@@ -26,4 +26,6 @@ public interface SoundWrapper {
 
     long play(float volume);
 
+    void stop(long soundId);
+
 }
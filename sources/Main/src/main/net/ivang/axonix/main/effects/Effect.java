@@ -16,47 +16,41 @@
 
 package net.ivang.axonix.main.effects;
 
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-
 /**
+ * Timed effect. Begins when scheduled with {@link EffectScheduler}
+ * and ends when its duration is over or it is cancelled.
+ *
  * @author Ivan Gadzhega
  * @since 0.3
  */
 public abstract class Effect {
 
-    private float duration, time;
-    private boolean complete;
+    private float duration;
+
+    // scheduler state
+    long deadline;
+    Effect previous;
+    Effect next;
+    boolean scheduled;
 
     public Effect(float duration) {
         this.duration = duration;
     }
 
-    public boolean act(float delta) {
-        complete = complete || time >= duration;
-        if (!complete) {
-            if (time == 0) {
-                begin();
-            } else {
-                update(delta);
-            }
-            time += delta;
-        } else {
-            end();
-        }
-
-        return complete;
-    }
-
-    public void complete() {
-        complete = true;
-    }
+    protected abstract void begin();
 
-    public abstract void draw(SpriteBatch batch);
+    protected abstract void end();
 
-    protected abstract void begin();
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
 
-    protected abstract void update(float delta);
+    public float getDuration() {
+        return duration;
+    }
 
-    protected abstract void end();
+    public boolean isScheduled() {
+        return scheduled;
+    }
 
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.effects;
+
+/**
+ * Ends the effects on time. The effects are kept in a hashed timer wheel:
+ * a ring of slots indexed by the tick at which they expire, so scheduling
+ * and cancelling are O(1), and every tick only looks at a single slot.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class EffectScheduler {
+
+    private static final float TICK = 1 / 20f;
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private Effect[] wheel;
+    private long tick;
+    private float time;
+    private int size;
+
+    public EffectScheduler() {
+        this.wheel = new Effect[WHEEL_SIZE];
+    }
+
+    /**
+     * Begins the effect and schedules its end. An already scheduled effect is restarted.
+     */
+    public void schedule(Effect effect) {
+        if (effect.scheduled) {
+            cancel(effect);
+        }
+        effect.begin();
+        long ticks = Math.max(1, (long) Math.ceil(effect.getDuration() / TICK));
+        effect.deadline = tick + ticks;
+        effect.scheduled = true;
+        link(effect);
+    }
+
+    /**
+     * Ends the effect before its time.
+     */
+    public void cancel(Effect effect) {
+        if (effect.scheduled) {
+            unlink(effect);
+            effect.end();
+        }
+    }
+
+    public void cancelAll() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            while (wheel[i] != null) {
+                cancel(wheel[i]);
+            }
+        }
+    }
+
+    public void update(float delta) {
+        time += delta;
+        while (time >= TICK) {
+            time -= TICK;
+            tick++;
+            if (size > 0) {
+                expire((int) (tick & WHEEL_MASK));
+            }
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void expire(int slot) {
+        Effect effect = wheel[slot];
+        while (effect != null) {
+            Effect next = effect.next;
+            // effects from later rounds of the wheel stay in the slot
+            if (effect.deadline <= tick) {
+                cancel(effect);
+            }
+            effect = next;
+        }
+    }
+
+    private void link(Effect effect) {
+        int slot = (int) (effect.deadline & WHEEL_MASK);
+        effect.previous = null;
+        effect.next = wheel[slot];
+        if (wheel[slot] != null) {
+            wheel[slot].previous = effect;
+        }
+        wheel[slot] = effect;
+        size++;
+    }
+
+    private void unlink(Effect effect) {
+        if (effect.previous != null) {
+            effect.previous.next = effect.next;
+        } else {
+            wheel[(int) (effect.deadline & WHEEL_MASK)] = effect.next;
+        }
+        if (effect.next != null) {
+            effect.next.previous = effect.previous;
+        }
+        effect.previous = null;
+        effect.next = null;
+        effect.scheduled = false;
+        size--;
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    /**
+     * @return number of the active effects
+     */
+    public int size() {
+        return size;
+    }
+
+}
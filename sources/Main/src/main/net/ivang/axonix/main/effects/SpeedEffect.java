@@ -16,44 +16,33 @@
 
 package net.ivang.axonix.main.effects;
 
-import com.badlogic.gdx.graphics.g2d.ParticleEffect;
-import com.badlogic.gdx.graphics.g2d.SpriteBatch;
-import net.ivang.axonix.main.actors.game.KinematicActor;
-
 /**
+ * Multiplies the given speed while active.
+ *
  * @author Ivan Gadzhega
  * @since 0.3
  */
-public class SpeedEffect extends Effect {
+public class SpeedEffect extends Effect implements Stat.Modifier {
 
-    private KinematicActor actor;
+    private Stat speed;
     private float multiplier;
 
-    private ParticleEffect particleEffect;
-
-    public SpeedEffect(KinematicActor actor, float multiplier, float duration, ParticleEffect particleEffect) {
+    public SpeedEffect(Stat speed, float multiplier, float duration) {
         super(duration);
-        this.actor = actor;
+        this.speed = speed;
         this.multiplier = multiplier;
-        this.particleEffect = particleEffect;
-    }
-
-    public void draw(SpriteBatch batch) {
-        particleEffect.draw(batch);
     }
 
     protected void begin() {
-        actor.setSpeed(actor.getSpeed() * multiplier);
-        particleEffect.start();
+        speed.addModifier(this);
     }
 
-    protected void update(float delta) {
-        particleEffect.setPosition(actor.getX(), actor.getY());
-        particleEffect.update(delta);
+    protected void end() {
+        speed.removeModifier(this);
     }
 
-    protected void end() {
-        actor.setSpeed(actor.getSpeed() / multiplier);
+    public float getMultiplier() {
+        return multiplier;
     }
 
 }
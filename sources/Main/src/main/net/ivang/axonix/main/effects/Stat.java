@@ -0,0 +1,100 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.effects;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Numeric property affected by effects. The value is always recomputed
+ * from the base value and the active modifiers, so no rounding errors
+ * are accumulated however the effects overlap.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class Stat {
+
+    private float base;
+    private float value;
+    private Array<Modifier> modifiers;
+
+    public Stat(float base) {
+        this.base = base;
+        this.value = base;
+        this.modifiers = new Array<Modifier>(false, 4);
+    }
+
+    public void addModifier(Modifier modifier) {
+        modifiers.add(modifier);
+        recalculate();
+    }
+
+    /**
+     * Removes the given modifier, if it is still active.
+     */
+    public void removeModifier(Modifier modifier) {
+        if (modifiers.removeValue(modifier, true)) {
+            recalculate();
+        }
+    }
+
+    public void clearModifiers() {
+        modifiers.clear();
+        recalculate();
+    }
+
+    public boolean hasModifiers() {
+        return modifiers.size > 0;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void recalculate() {
+        value = base;
+        for (int i = 0; i < modifiers.size; i++) {
+            value *= modifiers.get(i).getMultiplier();
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public float getValue() {
+        return value;
+    }
+
+    public float getBase() {
+        return base;
+    }
+
+    public void setBase(float base) {
+        this.base = base;
+        recalculate();
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public static interface Modifier {
+        float getMultiplier();
+    }
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.events;
+
+import com.badlogic.gdx.utils.Logger;
+import com.google.common.eventbus.EventBus;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Debug event bus keeping track of the registered subscribers.
+ *
+ * Each registration is attributed to the innermost lifecycle scope open at the moment,
+ * e.g. the shown screen or the played level. The subscribers registered within a scope
+ * and still registered when it ends are reported as leaks, since the bus keeps them
+ * reachable and receiving events. The scopes may end in any order.
+ *
+ * Use the static helpers from the game code, they do nothing on a plain event bus.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class AuditedEventBus extends EventBus {
+
+    private final Logger logger = new Logger("aXonix");
+    private final Map<Object, Registration> registrations = new IdentityHashMap<Object, Registration>();
+    private final List<Scope> scopes = new ArrayList<Scope>();
+    private boolean failOnLeak;
+
+    @Override
+    public void register(Object subscriber) {
+        super.register(subscriber);
+        Scope scope = scopes.isEmpty() ? null : scopes.get(scopes.size() - 1);
+        registrations.put(subscriber, new Registration(subscriber, scope));
+    }
+
+    @Override
+    public void unregister(Object subscriber) {
+        super.unregister(subscriber);
+        registrations.remove(subscriber);
+    }
+
+    public Scope beginScope(String name) {
+        Scope scope = new Scope(name);
+        scopes.add(scope);
+        return scope;
+    }
+
+    /**
+     * Ends the scope and reports the subscribers registered within it and not unregistered since.
+     *
+     * @return descriptions of the leaked subscribers
+     * @throws IllegalStateException if there are leaks and the bus is set to fail on them
+     */
+    public List<String> endScope(Scope scope) {
+        scopes.remove(scope);
+        List<String> leaks = new ArrayList<String>();
+        for (Registration registration : registrations.values()) {
+            if (registration.scope == scope) {
+                leaks.add(registration.toString());
+            }
+        }
+        if (!leaks.isEmpty()) {
+            String message = "Leaked subscribers of " + scope + " - " + leaks;
+            if (failOnLeak) {
+                throw new IllegalStateException(message);
+            }
+            logger.error(message);
+        }
+        return leaks;
+    }
+
+    /**
+     * Begins the scope if the bus is audited.
+     *
+     * @return the scope or {@code null}
+     */
+    public static Scope beginScope(EventBus eventBus, String name) {
+        if (eventBus instanceof AuditedEventBus) {
+            return ((AuditedEventBus) eventBus).beginScope(name);
+        }
+        return null;
+    }
+
+    /**
+     * Ends the scope if the bus is audited, the scope may be {@code null}.
+     */
+    public static void endScope(EventBus eventBus, Scope scope) {
+        if (scope != null && eventBus instanceof AuditedEventBus) {
+            ((AuditedEventBus) eventBus).endScope(scope);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public int getRegistrationsNum() {
+        return registrations.size();
+    }
+
+    public boolean isFailOnLeak() {
+        return failOnLeak;
+    }
+
+    public void setFailOnLeak(boolean failOnLeak) {
+        this.failOnLeak = failOnLeak;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public static class Scope {
+        private final String name;
+
+        private Scope(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static class Registration {
+        private final String owner;
+        private final Scope scope;
+        // where the subscriber was registered
+        private final StackTraceElement caller;
+
+        Registration(Object subscriber, Scope scope) {
+            this.owner = subscriber.getClass().getName();
+            this.scope = scope;
+            StackTraceElement[] trace = new Throwable().getStackTrace();
+            this.caller = (trace.length > 2) ? trace[2] : null;
+        }
+
+        @Override
+        public String toString() {
+            return owner + " registered at " + caller;
+        }
+    }
+
+}
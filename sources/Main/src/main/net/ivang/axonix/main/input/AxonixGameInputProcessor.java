@@ -20,6 +20,8 @@ import com.badlogic.gdx.InputAdapter;
 import com.google.common.eventbus.EventBus;
 import net.ivang.axonix.main.events.intents.BackIntent;
 import net.ivang.axonix.main.events.intents.DefaultIntent;
+import net.ivang.axonix.main.events.intents.ExportProfilerIntent;
+import net.ivang.axonix.main.events.intents.ToggleProfilerIntent;
 
 import static com.badlogic.gdx.Input.Keys;
 
@@ -45,6 +47,12 @@ public class AxonixGameInputProcessor extends InputAdapter {
             case Keys.ESCAPE:
                 eventBus.post(new BackIntent());
                 return true;
+            case Keys.F9:
+                eventBus.post(new ToggleProfilerIntent());
+                return true;
+            case Keys.F10:
+                eventBus.post(new ExportProfilerIntent());
+                return true;
         }
         return false;
     }
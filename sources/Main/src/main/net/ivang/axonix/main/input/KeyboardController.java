@@ -0,0 +1,64 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.input;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.math.Vector2;
+import net.ivang.axonix.main.actors.game.level.LevelView;
+
+import static net.ivang.axonix.main.actors.game.KinematicActor.Direction;
+
+/**
+ * Controls the protagonist with the arrow keys, WASD or dragging.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class KeyboardController implements ProtagonistController {
+
+    @Override
+    public Vector2 getDirection(LevelView level) {
+        boolean isDraggedLeft = false;
+        boolean isDraggedRight = false;
+        boolean isDraggedDown = false;
+        boolean isDraggedUp = false;
+
+        if (Gdx.input.isTouched()) {
+            int dx = Gdx.input.getDeltaX();
+            int dy = Gdx.input.getDeltaY();
+            float diff = Math.abs(dx) - Math.abs(dy);
+            int deadZone = Gdx.graphics.getHeight() / 240;
+            isDraggedLeft = dx < -deadZone && diff > 0;
+            isDraggedRight = dx > deadZone && diff >= 0;
+            isDraggedDown = dy < -deadZone && diff < 0;
+            isDraggedUp =  dy > deadZone && diff <= 0;
+        }
+
+        if (Gdx.input.isKeyPressed(Input.Keys.DOWN) || Gdx.input.isKeyPressed(Input.Keys.S) || isDraggedUp) {
+            return Direction.DOWN;
+        } else if (Gdx.input.isKeyPressed(Input.Keys.UP) || Gdx.input.isKeyPressed(Input.Keys.W) || isDraggedDown) {
+            return Direction.UP;
+        } else if (Gdx.input.isKeyPressed(Input.Keys.LEFT) || Gdx.input.isKeyPressed(Input.Keys.A) || isDraggedLeft) {
+            return Direction.LEFT;
+        } else if (Gdx.input.isKeyPressed(Input.Keys.RIGHT) || Gdx.input.isKeyPressed(Input.Keys.D) || isDraggedRight) {
+            return Direction.RIGHT;
+        }
+        return Direction.IDLE;
+    }
+
+}
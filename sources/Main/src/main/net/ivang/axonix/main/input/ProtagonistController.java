@@ -14,24 +14,26 @@
  * the License.
  */
 
-package net.ivang.axonix.main.actors.game.level.enemies;
+package net.ivang.axonix.main.input;
 
-import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.scenes.scene2d.ui.Skin;
-import com.google.common.eventbus.EventBus;
+import net.ivang.axonix.main.actors.game.level.LevelView;
 
 /**
+ * Decides where the protagonist goes.
+ *
  * @author Ivan Gadzhega
- * @since 0.4
+ * @since 0.5
  */
-public class BlueEnemy extends Enemy {
+public interface ProtagonistController {
 
-    public BlueEnemy(float x, float y, Skin skin, Vector2 direction, EventBus eventBus) {
-        super(x, y, 0.5f, direction, eventBus);
-        movingClockwise = MathUtils.randomBoolean();
-        particleEffect.load(Gdx.files.internal("data/particles/enemies/enemy_blue.p"), skin.getAtlas());
-    }
+    /**
+     * Called every frame while the protagonist is alive. The protagonist turns
+     * at the center of the next cell and never turns back on the tail.
+     *
+     * @return one of the {@link net.ivang.axonix.main.actors.game.KinematicActor.Direction} constants,
+     * {@code Direction.IDLE} to keep the current direction
+     */
+    Vector2 getDirection(LevelView level);
 
 }
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.input.bots;
+
+import com.badlogic.gdx.math.Vector2;
+import net.ivang.axonix.main.actors.game.level.LevelView;
+
+import static net.ivang.axonix.main.actors.game.KinematicActor.Direction;
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+
+/**
+ * Helpers shared by the bots. Bots decide once per cell, when the protagonist enters it.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+final class Bots {
+
+    static final Vector2[] DIRECTIONS = {Direction.UP, Direction.RIGHT, Direction.DOWN, Direction.LEFT};
+
+    private Bots() {
+    }
+
+    static boolean isFilled(LevelView level, int x, int y) {
+        Type type = level.getBlockType(x, y);
+        return type == Type.BLUE || type == Type.BLUE_HARD || type == Type.GREEN;
+    }
+
+    static boolean isEmpty(LevelView level, int x, int y) {
+        return level.getBlockType(x, y) == Type.EMPTY;
+    }
+
+    static boolean isOpposite(Vector2 a, Vector2 b) {
+        return a.x == -b.x && a.y == -b.y;
+    }
+
+    static Vector2 getOpposite(Vector2 direction) {
+        for (Vector2 opposite : DIRECTIONS) {
+            if (isOpposite(direction, opposite)) {
+                return opposite;
+            }
+        }
+        return Direction.IDLE;
+    }
+
+    /**
+     * @return distance to the closest enemy in cells, measured along the longer axis
+     */
+    static float getEnemyDistance(LevelView level, float x, float y) {
+        float closest = Float.MAX_VALUE;
+        for (int i = 0; i < level.getEnemiesNum(); i++) {
+            float distance = Math.max(Math.abs(level.getEnemyX(i) - x), Math.abs(level.getEnemyY(i) - y));
+            closest = Math.min(closest, distance);
+        }
+        return closest;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.input.bots;
+
+import com.badlogic.gdx.math.Vector2;
+import net.ivang.axonix.main.actors.game.level.LevelView;
+import net.ivang.axonix.main.input.ProtagonistController;
+
+import java.util.Random;
+
+import static net.ivang.axonix.main.actors.game.KinematicActor.Direction;
+import static net.ivang.axonix.main.actors.game.level.blocks.Block.Type;
+
+/**
+ * Wanders around, turning randomly and avoiding its own tail. Closes areas by chance
+ * and dies often, which keeps the tail, fill and respawn code busy.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class RandomWalker implements ProtagonistController {
+
+    private static final float TURN_PROBABILITY = 0.2f;
+
+    private final Random random;
+    private Vector2 current;
+    private int lastX, lastY;
+
+    public RandomWalker(long seed) {
+        this.random = new Random(seed);
+        this.current = Direction.IDLE;
+        this.lastX = -1;
+        this.lastY = -1;
+    }
+
+    @Override
+    public Vector2 getDirection(LevelView level) {
+        int x = (int) level.getProtagonistX();
+        int y = (int) level.getProtagonistY();
+        if (x == lastX && y == lastY) {
+            return current;
+        }
+        lastX = x;
+        lastY = y;
+
+        if (current == Direction.IDLE || random.nextFloat() < TURN_PROBABILITY || !canGo(level, x, y, current)) {
+            boolean onFilledBlock = Bots.isFilled(level, x, y);
+            // start from a random direction, take the first one possible
+            int first = random.nextInt(Bots.DIRECTIONS.length);
+            for (int i = 0; i < Bots.DIRECTIONS.length; i++) {
+                Vector2 direction = Bots.DIRECTIONS[(first + i) % Bots.DIRECTIONS.length];
+                if ((onFilledBlock || !Bots.isOpposite(direction, current)) && canGo(level, x, y, direction)) {
+                    current = direction;
+                    break;
+                }
+            }
+        }
+        return current;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private boolean canGo(LevelView level, int x, int y, Vector2 direction) {
+        Type type = level.getBlockType(x + (int) direction.x, y + (int) direction.y);
+        return type != null && type != Type.TAIL;
+    }
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.input.bots;
+
+import com.badlogic.gdx.math.Vector2;
+import net.ivang.axonix.main.actors.game.level.LevelView;
+import net.ivang.axonix.main.input.ProtagonistController;
+
+import java.util.Random;
+
+import static net.ivang.axonix.main.actors.game.KinematicActor.Direction;
+
+/**
+ * Carves rectangles off the empty space. Standing on a filled block, it picks the largest
+ * of a few random rectangles next to it, or a straight cut to the filled blocks on the other
+ * side, whose path keeps away from the enemies. Then it goes out, along and back to the
+ * filled blocks. Walks along the filled blocks while there is nothing safe to carve.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class RectangleCarver implements ProtagonistController {
+
+    private static final int MIN_SIDE = 2;
+    private static final int MAX_SIDE = 12;
+    private static final int CANDIDATES = 16;
+    // distance in cells to keep between the rectangle and the enemies
+    private static final float ENEMY_MARGIN = 3;
+
+    private enum Phase {
+        WALK, OUT, ALONG, BACK
+    }
+
+    private final Random random;
+
+    private Phase phase;
+    private Vector2 current;
+    private Vector2 out;
+    private Vector2 along;
+    private int depth;
+    private int length;
+    private int steps;
+    private int lastX, lastY;
+
+    public RectangleCarver(long seed) {
+        this.random = new Random(seed);
+        this.phase = Phase.WALK;
+        this.current = Direction.IDLE;
+        this.lastX = -1;
+        this.lastY = -1;
+    }
+
+    @Override
+    public Vector2 getDirection(LevelView level) {
+        int x = (int) level.getProtagonistX();
+        int y = (int) level.getProtagonistY();
+        if (x == lastX && y == lastY) {
+            return current;
+        }
+        lastX = x;
+        lastY = y;
+
+        if (Bots.isFilled(level, x, y)) {
+            if (!plan(level, x, y)) {
+                walk(level, x, y);
+            }
+            return current;
+        }
+
+        steps++;
+        switch (phase) {
+            case OUT:
+                if (steps >= depth) {
+                    current = along;
+                    phase = Phase.ALONG;
+                    steps = 0;
+                }
+                break;
+            case ALONG:
+                if (steps >= length) {
+                    current = Bots.getOpposite(out);
+                    phase = Phase.BACK;
+                    steps = 0;
+                }
+                break;
+        }
+        return current;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    /**
+     * Chooses the largest safe rectangle starting next to the cell at (x, y),
+     * or a straight cut across the empty space, if it is longer.
+     *
+     * @return false if there is none
+     */
+    private boolean plan(LevelView level, int x, int y) {
+        int bestArea = 0;
+        for (int i = 0; i < CANDIDATES; i++) {
+            Vector2 candidateOut = Bots.DIRECTIONS[random.nextInt(Bots.DIRECTIONS.length)];
+            // one of the two perpendicular directions
+            Vector2 candidateAlong = Bots.DIRECTIONS[(indexOf(candidateOut) + (random.nextBoolean() ? 1 : 3)) % 4];
+            int candidateDepth = MIN_SIDE + random.nextInt(MAX_SIDE - MIN_SIDE + 1);
+            int candidateLength = MIN_SIDE + random.nextInt(MAX_SIDE - MIN_SIDE + 1);
+            int area = candidateDepth * candidateLength;
+            if (area > bestArea && isSafe(level, x, y, candidateOut, candidateAlong, candidateDepth, candidateLength)) {
+                bestArea = area;
+                out = candidateOut;
+                along = candidateAlong;
+                depth = candidateDepth;
+                length = candidateLength;
+            }
+        }
+        for (Vector2 candidateOut : Bots.DIRECTIONS) {
+            int cut = getCutLength(level, x, y, candidateOut);
+            if (cut * MAX_SIDE > bestArea && isSafe(level, x, y, candidateOut, Direction.IDLE, cut, 0)) {
+                bestArea = cut * MAX_SIDE;
+                out = candidateOut;
+                // goes on until the filled blocks are reached
+                depth = Integer.MAX_VALUE;
+            }
+        }
+        if (bestArea == 0) return false;
+        current = out;
+        phase = Phase.OUT;
+        steps = 0;
+        return true;
+    }
+
+    /**
+     * @return the number of empty cells from (x, y) in the given direction to the next
+     * filled block, or 0 if the way is blocked by the tail or the map border
+     */
+    private int getCutLength(LevelView level, int x, int y, Vector2 direction) {
+        int dx = (int) direction.x, dy = (int) direction.y;
+        int cut = 0;
+        while (Bots.isEmpty(level, x + dx * (cut + 1), y + dy * (cut + 1))) {
+            cut++;
+        }
+        return Bots.isFilled(level, x + dx * (cut + 1), y + dy * (cut + 1)) ? cut : 0;
+    }
+
+    /**
+     * Keeps going along the filled blocks, turning where they end.
+     */
+    private void walk(LevelView level, int x, int y) {
+        phase = Phase.WALK;
+        if (current != Direction.IDLE && random.nextInt(8) != 0
+                && Bots.isFilled(level, x + (int) current.x, y + (int) current.y)) {
+            return;
+        }
+        int first = random.nextInt(Bots.DIRECTIONS.length);
+        for (int i = 0; i < Bots.DIRECTIONS.length; i++) {
+            Vector2 direction = Bots.DIRECTIONS[(first + i) % Bots.DIRECTIONS.length];
+            if (Bots.isFilled(level, x + (int) direction.x, y + (int) direction.y)) {
+                current = direction;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Checks that the path around the rectangle is empty and no enemy is close to it.
+     * The longer the path, the farther the enemies should be, as they move meanwhile.
+     */
+    private boolean isSafe(LevelView level, int x, int y, Vector2 out, Vector2 along, int depth, int length) {
+        int ox = (int) out.x, oy = (int) out.y;
+        int ax = (int) along.x, ay = (int) along.y;
+        float margin = ENEMY_MARGIN + (2 * depth + length) / 16f;
+        // the path: out, along and back without the last step onto the filled blocks
+        for (int d = 1; d <= depth; d++) {
+            if (!isSafe(level, x + ox * d, y + oy * d, margin)) return false;
+            if (length > 0 && !isSafe(level, x + ox * d + ax * length, y + oy * d + ay * length, margin)) return false;
+        }
+        for (int l = 1; l < length; l++) {
+            if (!isSafe(level, x + ox * depth + ax * l, y + oy * depth + ay * l, margin)) return false;
+        }
+        return true;
+    }
+
+    private boolean isSafe(LevelView level, int x, int y, float margin) {
+        return Bots.isEmpty(level, x, y) && Bots.getEnemyDistance(level, x + 0.5f, y + 0.5f) > margin;
+    }
+
+    private int indexOf(Vector2 direction) {
+        for (int i = 0; i < Bots.DIRECTIONS.length; i++) {
+            if (Bots.DIRECTIONS[i] == direction) return i;
+        }
+        return 0;
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.levels;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Hand-made levels stored as PNG files.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class LevelFiles implements LevelSource {
+
+    private final List<FileHandle> files;
+
+    public LevelFiles(FileHandle directory) {
+        FileHandle[] list = directory.list(".png");
+        // the listing order is platform dependent
+        Arrays.sort(list, new Comparator<FileHandle>() {
+            @Override
+            public int compare(FileHandle file1, FileHandle file2) {
+                return file1.name().compareTo(file2.name());
+            }
+        });
+        this.files = Arrays.asList(list);
+    }
+
+    @Override
+    public int size() {
+        return files.size();
+    }
+
+    @Override
+    public Pixmap createPixmap(int levelIndex) {
+        return new Pixmap(getFile(levelIndex));
+    }
+
+    public FileHandle getFile(int levelIndex) {
+        return files.get(levelIndex - 1);
+    }
+
+}
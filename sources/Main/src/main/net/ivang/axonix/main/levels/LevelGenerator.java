@@ -0,0 +1,227 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.levels;
+
+import com.badlogic.gdx.graphics.Pixmap;
+
+import java.util.Random;
+
+import static net.ivang.axonix.main.actors.game.level.Level.MapColors;
+
+/**
+ * Generates an endless sequence of levels from a seed. The same seed always gives
+ * the same levels, whatever order they are generated in. Maps grow with every level
+ * up to {@link #MAX_WIDTH} x {@link #MAX_HEIGHT}, and get more obstacles and enemies on the way.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class LevelGenerator implements LevelSource {
+
+    // a level takes about 420 bytes of heap per cell, so the largest map takes 16 MB,
+    // and even with the next one preloaded it fits the 48 MB heap of an older phone
+    public static final int MAX_WIDTH = 280;
+    public static final int MAX_HEIGHT = 140;
+
+    private static final int EMPTY = 0x000000;
+
+    private static final int MIN_WIDTH = 40;
+    private static final int MIN_HEIGHT = 20;
+    private static final int WIDTH_STEP = 10;
+    private static final int HEIGHT_STEP = 5;
+
+    // inner cells per obstacle and the part of the map they may cover at most
+    private static final int CELLS_PER_OBSTACLE = 200;
+    private static final float MAX_OBSTACLES_RATIO = 0.1f;
+    private static final int MAX_OBSTACLE_SIZE = 8;
+    // free cells kept between the obstacles and the border
+    private static final int BORDER_MARGIN = 2;
+
+    private static final int CELLS_PER_ENEMY = 150;
+    private static final int PURPLE_LEVEL = 3;
+    private static final int BLUE_LEVEL = 5;
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final long seed;
+
+    public LevelGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public int size() {
+        return Integer.MAX_VALUE;
+    }
+
+    @Override
+    public Pixmap createPixmap(int levelIndex) {
+        Random random = new Random(seed ^ (levelIndex * 0x9E3779B97F4A7C15L));
+        int width = Math.min(MIN_WIDTH + (levelIndex - 1) * WIDTH_STEP, MAX_WIDTH);
+        int height = Math.min(MIN_HEIGHT + (levelIndex - 1) * HEIGHT_STEP, MAX_HEIGHT);
+        // colors of the map, indexed by y * width + x as the pixmap
+        int[] map = new int[width * height];
+        drawBorder(map, width, height);
+        addObstacles(map, width, height, levelIndex, random);
+        addEnemies(map, width, height, levelIndex, random);
+        map[0] = MapColors.PROTAGONIST;
+        return toPixmap(map, width, height);
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void drawBorder(int[] map, int width, int height) {
+        for (int x = 0; x < width; x++) {
+            map[x] = MapColors.BLOCK_BLUE_HARD;
+            map[(height - 1) * width + x] = MapColors.BLOCK_BLUE_HARD;
+        }
+        for (int y = 0; y < height; y++) {
+            map[y * width] = MapColors.BLOCK_BLUE_HARD;
+            map[y * width + width - 1] = MapColors.BLOCK_BLUE_HARD;
+        }
+    }
+
+    /**
+     * Places rectangular obstacles which never touch each other or the border,
+     * so they cannot fence any area by themselves.
+     */
+    private void addObstacles(int[] map, int width, int height, int levelIndex, Random random) {
+        int innerWidth = width - 2 * (BORDER_MARGIN + 1);
+        int innerHeight = height - 2 * (BORDER_MARGIN + 1);
+        if (innerWidth < 1 || innerHeight < 1) return;
+        int count = Math.min(levelIndex - 1, innerWidth * innerHeight / CELLS_PER_OBSTACLE);
+        int maxCells = (int) ((width - 2) * (height - 2) * MAX_OBSTACLES_RATIO);
+        int cells = 0;
+        for (int i = 0; i < count; i++) {
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                int w = 1 + random.nextInt(Math.min(MAX_OBSTACLE_SIZE, innerWidth));
+                int h = 1 + random.nextInt(Math.min(MAX_OBSTACLE_SIZE, innerHeight));
+                int x = BORDER_MARGIN + 1 + random.nextInt(innerWidth - w + 1);
+                int y = BORDER_MARGIN + 1 + random.nextInt(innerHeight - h + 1);
+                if (cells + w * h <= maxCells && isEmpty(map, width, x - 1, y - 1, w + 2, h + 2)) {
+                    fill(map, width, x, y, w, h, MapColors.BLOCK_BLUE_HARD);
+                    cells += w * h;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Red enemies are always there, purple and blue ones join on the later levels.
+     * Blue enemies start next to the border, facing it.
+     */
+    private void addEnemies(int[] map, int width, int height, int levelIndex, Random random) {
+        int count = Math.min(1 + levelIndex / 2, Math.max(1, (width - 2) * (height - 2) / CELLS_PER_ENEMY));
+        for (int i = 0; i < count; i++) {
+            int roll = random.nextInt(10);
+            if (levelIndex >= BLUE_LEVEL && roll < 2) {
+                addBlueEnemy(map, width, height, random);
+            } else if (levelIndex >= PURPLE_LEVEL && roll < 5) {
+                addEnemy(map, width, height, MapColors.ENEMY_PURPLE, random);
+            } else {
+                addEnemy(map, width, height, MapColors.ENEMY_RED, random);
+            }
+        }
+    }
+
+    private void addEnemy(int[] map, int width, int height, int color, Random random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int x = 2 + random.nextInt(width - 4);
+            int y = 2 + random.nextInt(height - 4);
+            // keep some room around, so the enemy does not start inside a wall
+            if (isEmpty(map, width, x - 1, y - 1, 3, 3)) {
+                map[y * width + x] = color;
+                return;
+            }
+        }
+    }
+
+    private void addBlueEnemy(int[] map, int width, int height, Random random) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            int x, y, color;
+            switch (random.nextInt(4)) {
+                case 0:
+                    x = 1 + random.nextInt(width - 2);
+                    y = 1;
+                    color = MapColors.ENEMY_BLUE_U;
+                    break;
+                case 1:
+                    x = width - 2;
+                    y = 1 + random.nextInt(height - 2);
+                    color = MapColors.ENEMY_BLUE_R;
+                    break;
+                case 2:
+                    x = 1 + random.nextInt(width - 2);
+                    y = height - 2;
+                    color = MapColors.ENEMY_BLUE_D;
+                    break;
+                default:
+                    x = 1;
+                    y = 1 + random.nextInt(height - 2);
+                    color = MapColors.ENEMY_BLUE_L;
+                    break;
+            }
+            if (map[y * width + x] == EMPTY) {
+                map[y * width + x] = color;
+                return;
+            }
+        }
+    }
+
+    private boolean isEmpty(int[] map, int width, int x, int y, int w, int h) {
+        for (int j = y; j < y + h; j++) {
+            for (int i = x; i < x + w; i++) {
+                if (map[j * width + i] != EMPTY) return false;
+            }
+        }
+        return true;
+    }
+
+    private void fill(int[] map, int width, int x, int y, int w, int h, int color) {
+        for (int j = y; j < y + h; j++) {
+            for (int i = x; i < x + w; i++) {
+                map[j * width + i] = color;
+            }
+        }
+    }
+
+    private Pixmap toPixmap(int[] map, int width, int height) {
+        Pixmap pixmap = new Pixmap(width, height, Pixmap.Format.RGBA8888);
+        pixmap.setColor(rgba(EMPTY));
+        pixmap.fill();
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int color = map[y * width + x];
+                if (color != EMPTY) {
+                    pixmap.drawPixel(x, y, rgba(color));
+                }
+            }
+        }
+        return pixmap;
+    }
+
+    private static int rgba(int rgb) {
+        return (rgb << 8) | 0xff;
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.levels;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.google.common.eventbus.EventBus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.ivang.axonix.main.actors.game.level.Level;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Builds levels on a background thread, so that switching to the next level
+ * does not stall the rendering thread.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class LevelLoader {
+
+    private final Skin skin;
+    private final EventBus eventBus;
+    private final ExecutorService executor;
+
+    private int pendingIndex;
+    private LevelSource pendingSource;
+    private Future<Level> pendingLevel;
+
+    public LevelLoader(Skin skin, EventBus eventBus) {
+        this.skin = skin;
+        this.eventBus = eventBus;
+        this.executor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("level-loader-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Starts building the level in background. Does nothing if the level
+     * with the same index and source is already being preloaded.
+     */
+    public void preload(final int levelIndex, final LevelSource source) {
+        if (pendingLevel != null) {
+            if (isPending(levelIndex, source)) return;
+            pendingLevel.cancel(false);
+        }
+        pendingIndex = levelIndex;
+        pendingSource = source;
+        pendingLevel = executor.submit(new Callable<Level>() {
+            @Override
+            public Level call() throws Exception {
+                return build(levelIndex, source);
+            }
+        });
+    }
+
+    /**
+     * Returns the preloaded level if it matches the given index (waiting for it
+     * to be built, if needed), otherwise builds the level on the calling thread.
+     * The returned level is not registered with the event bus yet.
+     */
+    public Level load(int levelIndex, LevelSource source) {
+        Level level = null;
+        if (pendingLevel != null && isPending(levelIndex, source) && !pendingLevel.isCancelled()) {
+            try {
+                level = pendingLevel.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Unable to preload level: " + levelIndex, e.getCause());
+            }
+        }
+        discard();
+        return (level != null) ? level : build(levelIndex, source);
+    }
+
+    public void discard() {
+        if (pendingLevel != null) {
+            pendingLevel.cancel(false);
+            pendingLevel = null;
+            pendingSource = null;
+        }
+    }
+
+    public void dispose() {
+        discard();
+        executor.shutdownNow();
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private boolean isPending(int levelIndex, LevelSource source) {
+        return pendingIndex == levelIndex && pendingSource == source;
+    }
+
+    private Level build(int levelIndex, LevelSource source) {
+        Pixmap pixmap = source.createPixmap(levelIndex);
+        try {
+            return new Level(levelIndex, pixmap, skin, eventBus);
+        } finally {
+            pixmap.dispose();
+        }
+    }
+
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.levels;
+
+import com.badlogic.gdx.graphics.Pixmap;
+
+/**
+ * Provides the maps of the levels, in the pixel format described by
+ * {@link net.ivang.axonix.main.actors.game.level.Level.MapColors}.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public interface LevelSource {
+
+    /**
+     * @return the number of levels, {@link Integer#MAX_VALUE} if there is no last one
+     */
+    int size();
+
+    /**
+     * Creates the map of the level with the given index, starting with 1.
+     * Called on the loader thread, so it must not touch OpenGL.
+     */
+    Pixmap createPixmap(int levelIndex);
+
+}
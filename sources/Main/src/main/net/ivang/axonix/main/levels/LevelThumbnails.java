@@ -0,0 +1,297 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.levels;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.GL10;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.PixmapIO;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.PixmapTextureData;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.ivang.axonix.main.actors.game.level.Level.MapColors;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Miniatures of the level files for the level select screen.
+ *
+ * The thumbnails are rendered on a background thread and cached on disk, keyed by
+ * the hash of the level file content, so the later launches only read them back.
+ * The rendering thread copies the finished ones into the slots of a single texture page,
+ * a few per frame, reusing the least recently requested slots once the page is full.
+ * The page is a managed texture backed by a pixmap copy, so it survives the loss of the GL context.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class LevelThumbnails {
+
+    public static final int WIDTH = 40;
+    public static final int HEIGHT = 20;
+
+    private static final int PAGE_WIDTH = 512;
+    private static final int PAGE_HEIGHT = 256;
+    private static final int MAX_UPLOADS_PER_FRAME = 4;
+    private static final String CACHE_DIR = "thumbnails/";
+
+    // RGBA8888 colors of the thumbnails, opaque since the pixmap blending is global
+    private static final int COLOR_EMPTY = 0x0a1020ff;
+    private static final int COLOR_BLOCK = 0x2d55a0ff;
+    private static final int COLOR_PROTAGONIST = 0x00ff00ff;
+
+    private final LevelFiles levels;
+    private final ExecutorService executor;
+    private final Queue<Thumbnail> rendered;
+    private final Set<Integer> pending;
+    // level index -> slot, in the access order
+    private final LinkedHashMap<Integer, TextureRegion> slots;
+    private final int slotsNum;
+
+    private Pixmap pagePixmap;
+    private Texture page;
+
+    public LevelThumbnails(LevelFiles levels) {
+        this.levels = levels;
+        this.executor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("level-thumbnails-%d").setDaemon(true).build());
+        this.rendered = new ConcurrentLinkedQueue<Thumbnail>();
+        this.pending = new HashSet<Integer>();
+        this.slots = new LinkedHashMap<Integer, TextureRegion>(16, 0.75f, true);
+        this.slotsNum = (PAGE_WIDTH / WIDTH) * (PAGE_HEIGHT / HEIGHT);
+    }
+
+    /**
+     * Returns the thumbnail of the level, or {@code null} if it is not ready yet.
+     * In the latter case starts rendering it, it will be available after one of the next {@link #update()} calls.
+     */
+    public TextureRegion get(final int levelIndex) {
+        TextureRegion region = slots.get(levelIndex);
+        if (region == null && pending.add(levelIndex)) {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    rendered.add(new Thumbnail(levelIndex, load(levelIndex)));
+                }
+            });
+        }
+        return region;
+    }
+
+    /**
+     * Copies some of the rendered thumbnails to the texture page. Should be called on the rendering thread.
+     *
+     * @return true if any thumbnail became available
+     */
+    public boolean update() {
+        boolean updated = false;
+        for (int i = 0; i < MAX_UPLOADS_PER_FRAME; i++) {
+            Thumbnail thumbnail = rendered.poll();
+            if (thumbnail == null) break;
+            pending.remove(thumbnail.levelIndex);
+            if (thumbnail.pixmap != null) {
+                TextureRegion region = obtainSlot();
+                drawToPage(thumbnail.pixmap, region.getRegionX(), region.getRegionY());
+                thumbnail.pixmap.dispose();
+                slots.put(thumbnail.levelIndex, region);
+                updated = true;
+            }
+        }
+        return updated;
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+        Thumbnail thumbnail;
+        while ((thumbnail = rendered.poll()) != null) {
+            if (thumbnail.pixmap != null) thumbnail.pixmap.dispose();
+        }
+        if (page != null) {
+            page.dispose();
+            pagePixmap.dispose();
+            page = null;
+            pagePixmap = null;
+        }
+        slots.clear();
+        pending.clear();
+    }
+
+    /**
+     * Draws the thumbnail of the level map: the hard blocks, the enemies and the protagonist,
+     * the latter two taking over the blocks if several map pixels fall into a thumbnail pixel.
+     */
+    public static Pixmap render(Pixmap map) {
+        int mapWidth = map.getWidth();
+        int mapHeight = map.getHeight();
+        int[] colors = new int[WIDTH * HEIGHT];
+        int[] priorities = new int[WIDTH * HEIGHT];
+
+        for (int x = 0; x < mapWidth; x++) {
+            for (int y = 0; y < mapHeight; y++) {
+                int pix = (map.getPixel(x, y) >>> 8) & 0xffffff;
+                int color, priority;
+                switch (pix) {
+                    case MapColors.BLOCK_BLUE_HARD:
+                        color = COLOR_BLOCK;
+                        priority = 1;
+                        break;
+                    case MapColors.PROTAGONIST:
+                        color = COLOR_PROTAGONIST;
+                        priority = 3;
+                        break;
+                    case MapColors.ENEMY_RED:
+                    case MapColors.ENEMY_PURPLE:
+                    case MapColors.ENEMY_YELLOW:
+                        color = (pix << 8) | 0xff;
+                        priority = 2;
+                        break;
+                    case MapColors.ENEMY_BLUE_U:
+                    case MapColors.ENEMY_BLUE_R:
+                    case MapColors.ENEMY_BLUE_D:
+                    case MapColors.ENEMY_BLUE_L:
+                        color = 0x4080ffff;
+                        priority = 2;
+                        break;
+                    default:
+                        continue;
+                }
+                // both the map and the pixmap rows go from the top
+                int i = (x * WIDTH / mapWidth) * HEIGHT + y * HEIGHT / mapHeight;
+                if (priority > priorities[i]) {
+                    priorities[i] = priority;
+                    colors[i] = color;
+                }
+            }
+        }
+
+        Pixmap thumbnail = new Pixmap(WIDTH, HEIGHT, Pixmap.Format.RGBA8888);
+        for (int x = 0; x < WIDTH; x++) {
+            for (int y = 0; y < HEIGHT; y++) {
+                int i = x * HEIGHT + y;
+                thumbnail.drawPixel(x, y, (priorities[i] > 0) ? colors[i] : COLOR_EMPTY);
+            }
+        }
+        return thumbnail;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    /**
+     * Reads the cached thumbnail or renders it. Runs on the background thread.
+     */
+    private Pixmap load(int levelIndex) {
+        try {
+            FileHandle file = levels.getFile(levelIndex);
+            String hash = Hashing.sha1().hashBytes(file.readBytes()).toString();
+            FileHandle cached = Gdx.files.local(CACHE_DIR + hash + ".cim");
+            if (cached.exists()) {
+                try {
+                    return PixmapIO.readCIM(cached);
+                } catch (GdxRuntimeException e) {
+                    // broken cache file, render it again
+                }
+            }
+            Pixmap map = new Pixmap(file);
+            try {
+                Pixmap thumbnail = render(map);
+                writeCache(cached, thumbnail);
+                return thumbnail;
+            } finally {
+                map.dispose();
+            }
+        } catch (GdxRuntimeException e) {
+            // no thumbnail then
+            return null;
+        }
+    }
+
+    private void writeCache(FileHandle file, Pixmap thumbnail) {
+        try {
+            PixmapIO.writeCIM(file, thumbnail);
+        } catch (GdxRuntimeException e) {
+            // the storage may be not writable, rendering it is cheap enough anyway
+        }
+    }
+
+    private TextureRegion obtainSlot() {
+        if (slots.size() < slotsNum) {
+            int slot = slots.size();
+            int columns = PAGE_WIDTH / WIDTH;
+            return new TextureRegion(getPage(), (slot % columns) * WIDTH, (slot / columns) * HEIGHT, WIDTH, HEIGHT);
+        }
+        // reuse the least recently requested one
+        Iterator<Map.Entry<Integer, TextureRegion>> iterator = slots.entrySet().iterator();
+        TextureRegion region = iterator.next().getValue();
+        iterator.remove();
+        return region;
+    }
+
+    private Texture getPage() {
+        if (page == null) {
+            pagePixmap = new Pixmap(PAGE_WIDTH, PAGE_HEIGHT, Pixmap.Format.RGBA8888);
+            // reloaded from the pixmap after the context loss
+            page = new Texture(new PixmapTextureData(pagePixmap, null, false, false) {
+                @Override
+                public boolean isManaged() {
+                    return true;
+                }
+            });
+        }
+        return page;
+    }
+
+    /**
+     * Draws the thumbnail both into the page pixmap and the texture. Texture.draw() refuses
+     * the managed textures, so the texture part is done with the same GL call.
+     */
+    private void drawToPage(Pixmap thumbnail, int x, int y) {
+        Texture page = getPage();
+        pagePixmap.drawPixmap(thumbnail, x, y);
+        Gdx.gl.glBindTexture(GL10.GL_TEXTURE_2D, page.getTextureObjectHandle());
+        Gdx.gl.glTexSubImage2D(GL10.GL_TEXTURE_2D, 0, x, y, thumbnail.getWidth(), thumbnail.getHeight(),
+                thumbnail.getGLFormat(), thumbnail.getGLType(), thumbnail.getPixels());
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    private static class Thumbnail {
+        private final int levelIndex;
+        private final Pixmap pixmap;
+
+        Thumbnail(int levelIndex, Pixmap pixmap) {
+            this.levelIndex = levelIndex;
+            this.pixmap = pixmap;
+        }
+    }
+
+}
@@ -18,6 +18,7 @@ package net.ivang.axonix.main.preferences;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Preferences;
+import com.badlogic.gdx.utils.IntIntMap;
 
 /**
  * @author Ivan Gadzhega
@@ -36,9 +37,17 @@ public class PreferencesWrapper {
     private static final String PREF_KEY_SFX_VOLUME = "sfx_volume";
     private static final float SFX_VOLUME_DEF_VALUE = 0.7f;
 
+    // marks the levels without the preference in the caches
+    private static final int NONE = Integer.MIN_VALUE;
+
     private Preferences preferences;
     private boolean isChanged;
 
+    // the per level values are cached, so the levels screen does not build the keys again and again
+    private final IntIntMap livesCache = new IntIntMap();
+    private final IntIntMap levelScoreCache = new IntIntMap();
+    private int lastUnlockedLevel;
+
     public PreferencesWrapper() {
         preferences = Gdx.app.getPreferences(PREFS_NAME);
     }
@@ -46,26 +55,47 @@ public class PreferencesWrapper {
     /* Lives */
 
     public int getLives(int levelIndex) {
-        return preferences.getInteger(PREF_KEY_LIVES + levelIndex);
+        int lives = getCachedInteger(livesCache, PREF_KEY_LIVES, levelIndex);
+        return (lives != NONE) ? lives : 0;
     }
 
     public void setLives(int levelIndex, int livesNumber) {
         preferences.putInteger(PREF_KEY_LIVES + levelIndex, livesNumber);
+        livesCache.put(levelIndex, livesNumber);
+        if (levelIndex >= lastUnlockedLevel) {
+            lastUnlockedLevel = 0;
+        }
         isChanged = true;
     }
 
     public boolean containsLives(int levelIndex) {
-        return preferences.contains(PREF_KEY_LIVES + levelIndex);
+        return getCachedInteger(livesCache, PREF_KEY_LIVES, levelIndex) != NONE;
+    }
+
+    /**
+     * @return index of the level following the completed ones, starting from the first
+     */
+    public int getLastUnlockedLevel() {
+        if (lastUnlockedLevel == 0) {
+            int levelIndex = 1;
+            while (containsLives(levelIndex)) {
+                levelIndex++;
+            }
+            lastUnlockedLevel = levelIndex;
+        }
+        return lastUnlockedLevel;
     }
 
     /* Level Score */
 
     public int getLevelScore(int levelIndex) {
-        return preferences.getInteger(PREF_KEY_LVL_SCORE + levelIndex);
+        int levelScore = getCachedInteger(levelScoreCache, PREF_KEY_LVL_SCORE, levelIndex);
+        return (levelScore != NONE) ? levelScore : 0;
     }
 
     public void setLevelScore(int levelIndex, int levelScore) {
         preferences.putInteger(PREF_KEY_LVL_SCORE + levelIndex, levelScore);
+        levelScoreCache.put(levelIndex, levelScore);
         isChanged = true;
     }
 
@@ -111,8 +141,25 @@ public class PreferencesWrapper {
 
     public void clear() {
         preferences.clear();
+        livesCache.clear();
+        levelScoreCache.clear();
+        lastUnlockedLevel = 0;
         isChanged = true;
     }
 
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private int getCachedInteger(IntIntMap cache, String keyPrefix, int levelIndex) {
+        int value = cache.get(levelIndex, NONE);
+        if (value == NONE && !cache.containsKey(levelIndex)) {
+            String key = keyPrefix + levelIndex;
+            value = preferences.contains(key) ? preferences.getInteger(key) : NONE;
+            cache.put(levelIndex, value);
+        }
+        return value;
+    }
+
 
 }
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.profiling;
+
+/**
+ * Histogram of the last N time samples with the fixed bucket size.
+ * Neither adding samples nor calculating percentiles allocates memory.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class FrameHistogram {
+
+    private final float bucketSize;
+    private final int[] buckets;
+    private final int[] window;
+
+    private int windowIndex;
+    private int samples;
+    private float max;
+
+    /**
+     * @param bucketSize size of the bucket in milliseconds
+     * @param bucketsNum number of buckets, the last one also collects all the greater values
+     * @param windowSize number of the last samples to keep
+     */
+    public FrameHistogram(float bucketSize, int bucketsNum, int windowSize) {
+        this.bucketSize = bucketSize;
+        this.buckets = new int[bucketsNum];
+        this.window = new int[windowSize];
+    }
+
+    public void add(float millis) {
+        int bucket = Math.min((int) (millis / bucketSize), buckets.length - 1);
+        // drop the oldest sample
+        if (samples == window.length) {
+            buckets[window[windowIndex]]--;
+        } else {
+            samples++;
+        }
+        window[windowIndex] = bucket;
+        windowIndex = (windowIndex + 1) % window.length;
+        buckets[bucket]++;
+        max = Math.max(max, millis);
+    }
+
+    /**
+     * @param percentile value in range (0, 1]
+     * @return the upper bound of the bucket containing the given percentile, in milliseconds
+     */
+    public float getPercentile(float percentile) {
+        if (samples == 0) return 0;
+        int rank = (int) Math.ceil(percentile * samples);
+        int count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i];
+            if (count >= rank) {
+                return (i + 1) * bucketSize;
+            }
+        }
+        return buckets.length * bucketSize;
+    }
+
+    public void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = 0;
+        }
+        windowIndex = 0;
+        samples = 0;
+        max = 0;
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * @return the max value since the histogram has been created or cleared
+     */
+    public float getMax() {
+        return max;
+    }
+
+}
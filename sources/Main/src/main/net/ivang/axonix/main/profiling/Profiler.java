@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.profiling;
+
+import com.badlogic.gdx.files.FileHandle;
+
+/**
+ * Measures the time spent in particular phases of the frame.
+ *
+ * Calls are static to be cheap to put anywhere in the game loop,
+ * and do nothing while the profiler is disabled.
+ * Several begin/end pairs of the same phase within a frame are summed up.
+ * Only the phases which were measured in the frame are added to their histograms.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public final class Profiler {
+
+    private static final float BUCKET_SIZE = 0.1f;
+    private static final int BUCKETS_NUM = 500;
+    private static final int WINDOW_SIZE = 300;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final long[] starts = new long[PHASES.length];
+    private static final long[] times = new long[PHASES.length];
+    private static final boolean[] measured = new boolean[PHASES.length];
+    private static final FrameHistogram[] histograms = new FrameHistogram[PHASES.length];
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new FrameHistogram(BUCKET_SIZE, BUCKETS_NUM, WINDOW_SIZE);
+        }
+    }
+
+    private static boolean enabled;
+
+    private Profiler() {
+    }
+
+    public static void begin(Phase phase) {
+        if (enabled) {
+            starts[phase.ordinal()] = System.nanoTime();
+        }
+    }
+
+    public static void end(Phase phase) {
+        if (enabled) {
+            int i = phase.ordinal();
+            times[i] += System.nanoTime() - starts[i];
+            measured[i] = true;
+        }
+    }
+
+    public static void beginFrame() {
+        begin(Phase.FRAME);
+    }
+
+    public static void endFrame() {
+        if (enabled) {
+            end(Phase.FRAME);
+            for (int i = 0; i < PHASES.length; i++) {
+                if (measured[i]) {
+                    histograms[i].add(times[i] / 1000000f);
+                    times[i] = 0;
+                    measured[i] = false;
+                }
+            }
+        }
+    }
+
+    public static float getPercentile(Phase phase, float percentile) {
+        return histograms[phase.ordinal()].getPercentile(percentile);
+    }
+
+    public static float getMax(Phase phase) {
+        return histograms[phase.ordinal()].getMax();
+    }
+
+    /**
+     * Writes the current percentiles of all the phases in CSV format.
+     */
+    public static void export(FileHandle file) {
+        StringBuilder builder = new StringBuilder("phase,samples,p50,p95,p99,max\n");
+        for (Phase phase : PHASES) {
+            FrameHistogram histogram = histograms[phase.ordinal()];
+            builder.append(phase.getTitle()).append(',')
+                    .append(histogram.getSamples()).append(',')
+                    .append(histogram.getPercentile(0.5f)).append(',')
+                    .append(histogram.getPercentile(0.95f)).append(',')
+                    .append(histogram.getPercentile(0.99f)).append(',')
+                    .append(histogram.getMax()).append('\n');
+        }
+        file.writeString(builder.toString(), false);
+    }
+
+    public static void clear() {
+        for (int i = 0; i < PHASES.length; i++) {
+            histograms[i].clear();
+            times[i] = 0;
+            measured[i] = false;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        if (enabled && !Profiler.enabled) {
+            clear();
+        }
+        Profiler.enabled = enabled;
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public enum Phase {
+        FRAME("frame"),
+        STAGE_ACT("act"),
+        CHECK_TAIL("tail"),
+        CHECK_ENEMIES("enemies"),
+        CHECK_PROTAGONIST("protagonist"),
+        FILL_AREAS("fill"),
+        PARTICLES("particles"),
+        STAGE_DRAW("draw");
+
+        private final String title;
+
+        private Phase(String title) {
+            this.title = title;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.quality;
+
+/**
+ * Scales the expensive visuals down when frames take too long,
+ * and back up when there is enough headroom again.
+ *
+ * The quality drops as soon as the average frame time over the last second
+ * misses the frame budget. It rises only after the average work time of a frame
+ * (without waiting for the vertical sync) has stayed well below the budget for a while.
+ * Every quick fall back after a rise doubles that while, so a device on the edge
+ * does not flicker between two levels.
+ *
+ * Calls are static to be cheap to check anywhere in the rendering code.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public final class QualityGovernor {
+
+    private static final float FRAME_BUDGET = 1 / 60f;
+    // average frame time that makes the quality drop
+    private static final float DOWNGRADE_RATIO = 1.15f;
+    // average work time that lets the quality rise
+    private static final float UPGRADE_RATIO = 0.5f;
+    private static final int WINDOW_SIZE = 60;
+    private static final int MIN_UPGRADE_DELAY = 180;
+    private static final int MAX_UPGRADE_DELAY = 60 * 60;
+
+    private static final float[] frameTimes = new float[WINDOW_SIZE];
+    private static final float[] workTimes = new float[WINDOW_SIZE];
+    private static int index;
+    private static int samples;
+    private static float frameTimesSum;
+    private static float workTimesSum;
+    private static long frameStart;
+
+    private static Quality quality = Quality.HIGH;
+    private static int framesSinceChange;
+    private static int upgradeDelay = MIN_UPGRADE_DELAY;
+    private static boolean lastChangeUpgrade;
+    private static boolean enabled = true;
+
+    private QualityGovernor() {
+    }
+
+    public static void beginFrame() {
+        frameStart = System.nanoTime();
+    }
+
+    /**
+     * @param delta time since the previous frame, in seconds
+     */
+    public static void endFrame(float delta) {
+        if (!enabled) return;
+        float workTime = (System.nanoTime() - frameStart) / 1000000000f;
+        // rolling sums over the window
+        frameTimesSum += delta - frameTimes[index];
+        workTimesSum += workTime - workTimes[index];
+        frameTimes[index] = delta;
+        workTimes[index] = workTime;
+        index = (index + 1) % WINDOW_SIZE;
+        samples = Math.min(samples + 1, WINDOW_SIZE);
+        framesSinceChange++;
+
+        if (samples < WINDOW_SIZE) return;
+        float averageFrameTime = frameTimesSum / WINDOW_SIZE;
+        float averageWorkTime = workTimesSum / WINDOW_SIZE;
+        if (averageFrameTime > FRAME_BUDGET * DOWNGRADE_RATIO && quality.ordinal() > 0) {
+            // falling back right after a rise: wait longer before the next one
+            if (lastChangeUpgrade && framesSinceChange < upgradeDelay) {
+                upgradeDelay = Math.min(upgradeDelay * 2, MAX_UPGRADE_DELAY);
+            }
+            setQuality(Quality.values()[quality.ordinal() - 1], false);
+        } else if (averageWorkTime < FRAME_BUDGET * UPGRADE_RATIO && framesSinceChange >= upgradeDelay
+                && quality.ordinal() < Quality.values().length - 1) {
+            setQuality(Quality.values()[quality.ordinal() + 1], true);
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private static void setQuality(Quality quality, boolean upgrade) {
+        QualityGovernor.quality = quality;
+        lastChangeUpgrade = upgrade;
+        framesSinceChange = 0;
+        // measure the new level from scratch
+        samples = 0;
+        frameTimesSum = 0;
+        workTimesSum = 0;
+        for (int i = 0; i < WINDOW_SIZE; i++) {
+            frameTimes[i] = 0;
+            workTimes[i] = 0;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Getters & Setters
+    //---------------------------------------------------------------------
+
+    public static Quality getQuality() {
+        return quality;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Disabling the governor restores the highest quality.
+     */
+    public static void setEnabled(boolean enabled) {
+        QualityGovernor.enabled = enabled;
+        if (!enabled) {
+            setQuality(Quality.HIGH, false);
+            upgradeDelay = MIN_UPGRADE_DELAY;
+        }
+    }
+
+    //---------------------------------------------------------------------
+    // Nested Classes
+    //---------------------------------------------------------------------
+
+    public enum Quality {
+        LOW(0.2f, 0.25f, false, false),
+        MEDIUM(0.5f, 0.5f, true, false),
+        HIGH(1, 1, true, true);
+
+        private final float flaresRatio;
+        private final float emissionRatio;
+        private final boolean blockAnimations;
+        private final boolean tailFadeIn;
+
+        private Quality(float flaresRatio, float emissionRatio, boolean blockAnimations, boolean tailFadeIn) {
+            this.flaresRatio = flaresRatio;
+            this.emissionRatio = emissionRatio;
+            this.blockAnimations = blockAnimations;
+            this.tailFadeIn = tailFadeIn;
+        }
+
+        /**
+         * @return part of the background flares to show
+         */
+        public float getFlaresRatio() {
+            return flaresRatio;
+        }
+
+        /**
+         * @return part of the original particle emission to keep
+         */
+        public float getEmissionRatio() {
+            return emissionRatio;
+        }
+
+        public boolean isBlockAnimations() {
+            return blockAnimations;
+        }
+
+        public boolean isTailFadeIn() {
+            return tailFadeIn;
+        }
+    }
+
+}
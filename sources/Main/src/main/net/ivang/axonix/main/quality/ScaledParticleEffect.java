@@ -0,0 +1,114 @@
+/*
+ * Copyright 2012-2013 Ivan Gadzhega
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package net.ivang.axonix.main.quality;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.g2d.ParticleEffect;
+import com.badlogic.gdx.graphics.g2d.ParticleEmitter;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.utils.Array;
+
+import static com.badlogic.gdx.graphics.g2d.ParticleEmitter.ScaledNumericValue;
+
+/**
+ * Particle effect which emits fewer particles at the lower qualities.
+ * The change is picked up by the emitters on their next restart.
+ *
+ * @author Ivan Gadzhega
+ * @since 0.5
+ */
+public class ScaledParticleEffect extends ParticleEffect {
+
+    // original values of each emitter: emission low min/max, high min/max and min particle count
+    private float[] base;
+    private float emissionRatio = 1;
+
+    public ScaledParticleEffect() {
+    }
+
+    public ScaledParticleEffect(ParticleEffect effect) {
+        super(effect);
+        if (effect instanceof ScaledParticleEffect) {
+            // copy the original values, not the scaled ones
+            ScaledParticleEffect scaled = (ScaledParticleEffect) effect;
+            this.base = scaled.base;
+            this.emissionRatio = scaled.emissionRatio;
+        } else {
+            captureBase();
+        }
+    }
+
+    @Override
+    public void load(FileHandle effectFile, TextureAtlas atlas) {
+        super.load(effectFile, atlas);
+        emissionRatio = 1;
+        captureBase();
+    }
+
+    @Override
+    public void update(float delta) {
+        float ratio = QualityGovernor.getQuality().getEmissionRatio();
+        if (ratio != emissionRatio && base != null) {
+            applyEmissionRatio(ratio);
+        }
+        super.update(delta);
+    }
+
+    /**
+     * @return number of the particles alive in all the emitters of the effect
+     */
+    public static int getActiveCount(ParticleEffect effect) {
+        if (effect == null) return 0;
+        int count = 0;
+        Array<ParticleEmitter> emitters = effect.getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            count += emitters.get(i).getActiveCount();
+        }
+        return count;
+    }
+
+    //---------------------------------------------------------------------
+    // Helper methods
+    //---------------------------------------------------------------------
+
+    private void captureBase() {
+        Array<ParticleEmitter> emitters = getEmitters();
+        base = new float[emitters.size * 5];
+        for (int i = 0; i < emitters.size; i++) {
+            ParticleEmitter emitter = emitters.get(i);
+            ScaledNumericValue emission = emitter.getEmission();
+            base[i * 5] = emission.getLowMin();
+            base[i * 5 + 1] = emission.getLowMax();
+            base[i * 5 + 2] = emission.getHighMin();
+            base[i * 5 + 3] = emission.getHighMax();
+            base[i * 5 + 4] = emitter.getMinParticleCount();
+        }
+    }
+
+    private void applyEmissionRatio(float ratio) {
+        Array<ParticleEmitter> emitters = getEmitters();
+        for (int i = 0; i < emitters.size; i++) {
+            ParticleEmitter emitter = emitters.get(i);
+            ScaledNumericValue emission = emitter.getEmission();
+            emission.setLow(base[i * 5] * ratio, base[i * 5 + 1] * ratio);
+            emission.setHigh(base[i * 5 + 2] * ratio, base[i * 5 + 3] * ratio);
+            emitter.setMinParticleCount((int) (base[i * 5 + 4] * ratio));
+        }
+        emissionRatio = ratio;
+    }
+
+}
@@ -25,6 +25,9 @@ import com.badlogic.gdx.scenes.scene2d.ui.Skin;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.google.common.eventbus.EventBus;
 import net.ivang.axonix.main.AxonixGame;
+import net.ivang.axonix.main.events.AuditedEventBus;
+import net.ivang.axonix.main.profiling.Profiler;
+import net.ivang.axonix.main.quality.QualityGovernor;
 
 /**
  * @author Ivan Gadzhega
@@ -39,6 +42,8 @@ public abstract class BaseScreen implements Screen {
     protected EventBus eventBus;
     protected InputMultiplexer inputMultiplexer;
 
+    private AuditedEventBus.Scope scope;
+
     protected BaseScreen(final AxonixGame game, InputMultiplexer inputMultiplexer, EventBus eventBus) {
         this.game = game;
         this.stage = new Stage();
@@ -54,9 +59,17 @@ public abstract class BaseScreen implements Screen {
     public void render(float delta) {
         Gdx.gl.glClearColor(0, 0, 0, 1);
         Gdx.gl.glClear(GL10.GL_COLOR_BUFFER_BIT);
+        QualityGovernor.beginFrame();
+        Profiler.beginFrame();
+        Profiler.begin(Profiler.Phase.STAGE_ACT);
         stage.act();
+        Profiler.end(Profiler.Phase.STAGE_ACT);
+        Profiler.begin(Profiler.Phase.STAGE_DRAW);
         stage.draw();
+        Profiler.end(Profiler.Phase.STAGE_DRAW);
         Table.drawDebug(stage);
+        Profiler.endFrame();
+        QualityGovernor.endFrame(delta);
     }
 
     @Override
@@ -70,6 +83,7 @@ public abstract class BaseScreen implements Screen {
     @Override
     public void show() {
         inputMultiplexer.addProcessor(stage);
+        scope = AuditedEventBus.beginScope(eventBus, getClass().getSimpleName());
         eventBus.register(this);
     }
 
@@ -77,6 +91,7 @@ public abstract class BaseScreen implements Screen {
     public void hide() {
         inputMultiplexer.removeProcessor(stage);
         eventBus.unregister(this);
+        AuditedEventBus.endScope(eventBus, scope);
     }
 
     @Override
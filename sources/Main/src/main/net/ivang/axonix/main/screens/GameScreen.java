@@ -16,10 +16,9 @@
 
 package net.ivang.axonix.main.screens;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputMultiplexer;
-import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.scenes.scene2d.Action;
-import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.actions.Actions;
 import com.badlogic.gdx.scenes.scene2d.actions.ParallelAction;
 import com.badlogic.gdx.scenes.scene2d.actions.SequenceAction;
@@ -31,25 +30,37 @@ import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import net.ivang.axonix.main.AxonixGame;
+import net.ivang.axonix.main.actors.game.NumberLabel;
 import net.ivang.axonix.main.actors.game.level.Level;
 import net.ivang.axonix.main.actors.game.background.Background;
 import net.ivang.axonix.main.actors.game.bar.DebugBar;
+import net.ivang.axonix.main.actors.game.bar.ProfilerBar;
 import net.ivang.axonix.main.actors.game.bar.StatusBar;
 import net.ivang.axonix.main.actors.game.dialog.AlertDialog;
 import net.ivang.axonix.main.actors.game.dialog.ScreenStateDialog;
+import net.ivang.axonix.main.actors.game.level.blocks.BlockDescriptors;
 import net.ivang.axonix.main.actors.game.level.bonuses.LifeBonus;
+import net.ivang.axonix.main.events.AuditedEventBus;
 import net.ivang.axonix.main.events.facts.LivesNumberFact;
 import net.ivang.axonix.main.events.facts.ObtainedPointsFact;
 import net.ivang.axonix.main.events.facts.TotalScoreFact;
 import net.ivang.axonix.main.events.facts.level.LevelIndexFact;
+import net.ivang.axonix.main.events.facts.level.LevelProgressFact;
 import net.ivang.axonix.main.events.intents.BackIntent;
 import net.ivang.axonix.main.events.intents.DefaultIntent;
+import net.ivang.axonix.main.events.intents.ExportProfilerIntent;
+import net.ivang.axonix.main.events.intents.ToggleProfilerIntent;
 import net.ivang.axonix.main.events.intents.game.*;
 import net.ivang.axonix.main.events.intents.screen.LevelsScreenIntent;
 import net.ivang.axonix.main.events.intents.screen.StartScreenIntent;
+import net.ivang.axonix.main.levels.LevelGenerator;
+import net.ivang.axonix.main.levels.LevelLoader;
+import net.ivang.axonix.main.levels.LevelSource;
 import net.ivang.axonix.main.preferences.PreferencesWrapper;
+import net.ivang.axonix.main.profiling.Profiler;
 
 import static com.badlogic.gdx.scenes.scene2d.ui.Label.LabelStyle;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 
 /**
@@ -62,6 +73,15 @@ public class GameScreen extends BaseScreen {
         PLAYING, PAUSED, LEVEL_COMPLETED, GAME_OVER, WIN
     }
 
+    private static final int PRELOAD_PERCENT = 70;
+    private static final String PROFILER_FILE = "axonix_profiler.csv";
+    private static final int LEVEL_PADDING = 5;
+    // smallest cell size in pixels, larger maps get scrolled
+    private static final float MIN_CELL_SIZE = 10;
+    // size of the stock maps, which always fit the screen
+    private static final int STOCK_MAP_WIDTH = 40;
+    private static final int STOCK_MAP_HEIGHT = 20;
+
     @Inject
     private PreferencesWrapper preferences;
 
@@ -71,13 +91,18 @@ public class GameScreen extends BaseScreen {
     private int totalScore;
     private int levelIndex;
     private Level level;
+    private LevelSource levels;
+    private boolean endless;
+    private LevelLoader levelLoader;
+    private AuditedEventBus.Scope levelScope;
 
     private Style style;
     private StatusBar statusBar;
+    private ProfilerBar profilerBar;
     private Cell levelCell;
     private Cell statusCell;
-    private Label pointsLabel;
-    private Label bigPointsLabel;
+    private NumberLabel pointsLabel;
+    private NumberLabel bigPointsLabel;
     private Label notificationLabel;
     private ScreenStateDialog stateDialog;
     private Background background;
@@ -85,10 +110,12 @@ public class GameScreen extends BaseScreen {
     @Inject
     private GameScreen(AxonixGame game, InputMultiplexer inputMultiplexer, EventBus eventBus) {
         super(game, inputMultiplexer, eventBus);
+        this.levelLoader = new LevelLoader(skin, eventBus);
 
         // init sub-components
         Table rootTable = initRootTable(style);
         DebugBar debugBar = initDebugBar(style);
+        initProfilerBar(style);
         initBackground();
         initPointsLabels(style);
         initNotificationLabel(style);
@@ -101,6 +128,7 @@ public class GameScreen extends BaseScreen {
         stage.addActor(notificationLabel);
         stage.addActor(stateDialog);
         stage.addActor(debugBar);
+        stage.addActor(profilerBar);
     }
 
     public void nextLevel() {
@@ -108,26 +136,55 @@ public class GameScreen extends BaseScreen {
     }
 
     public void loadLevel(int index) {
+        levels = game.getLevels();
+        endless = false;
         setLevel(index, true);
     }
 
+    /**
+     * Starts the endless mode with the levels generated from the given seed.
+     * The progress is not saved to the preferences.
+     */
+    public void startEndless(long seed) {
+        levels = new LevelGenerator(seed);
+        endless = true;
+        setLevel(1, true);
+    }
+
     @Override
     public void resize(int width, int height) {
         super.resize(width, height);
 
         if (level != null) {
-            float scale = calculateScaling(stage, level, statusCell.getMaxHeight());
-            level.setScale(scale);
-            levelCell.width(level.getMapWidth() * scale).height(level.getMapHeight() * scale);
+            layoutLevel();
         }
         background.update(true);
     }
 
+    @Override
+    public void show() {
+        super.show();
+        if (level != null) registerLevel();
+    }
+
+    @Override
+    public void hide() {
+        // the hidden level should not be reachable from the event bus
+        if (level != null) unregisterLevel();
+        super.hide();
+    }
+
     @Override
     public void pause() {
         setState(State.PAUSED);
     }
 
+    @Override
+    public void dispose() {
+        super.dispose();
+        levelLoader.dispose();
+    }
+
     //---------------------------------------------------------------------
     // Subscribers
     //---------------------------------------------------------------------
@@ -137,11 +194,12 @@ public class GameScreen extends BaseScreen {
     public void onStateChange(State state) {
         switch (state) {
             case LEVEL_COMPLETED:
-                saveLevelInfoToPrefs();
+                if (!endless) saveLevelInfoToPrefs();
+                preloadNextLevel();
                 break;
             case GAME_OVER:
             case WIN:
-                saveGameInfoToPrefs();
+                if (!endless) saveGameInfoToPrefs();
                 break;
         }
     }
@@ -155,7 +213,7 @@ public class GameScreen extends BaseScreen {
     @Subscribe
     @SuppressWarnings("unused")
     public void replayLevel(ReplayLevelIntent intent) {
-        loadLevel(levelIndex);
+        setLevel(levelIndex, true);
     }
 
     @Subscribe
@@ -168,6 +226,14 @@ public class GameScreen extends BaseScreen {
         }
     }
 
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void onLevelProgressChange(LevelProgressFact fact) {
+        if (fact.getPercentComplete() >= PRELOAD_PERCENT) {
+            preloadNextLevel();
+        }
+    }
+
     @Subscribe
     @SuppressWarnings("unused")
     public void onLevelScoreChange(LevelScoreIntent intent) {
@@ -204,8 +270,8 @@ public class GameScreen extends BaseScreen {
     public void showObtainedPoints(ObtainedPointsFact fact) {
         // text
         int points = fact.getPoints();
-        Label label = (points <= ObtainedPointsFact.QUANTITY_3) ? getPointsLabel(): getBigPointsLabel();
-        label.setText(Integer.toString(points));
+        NumberLabel label = (points <= ObtainedPointsFact.QUANTITY_3) ? getPointsLabel(): getBigPointsLabel();
+        label.setValue(points);
         // position
         float x = fact.getX();
         float y = fact.getY();
@@ -239,7 +305,7 @@ public class GameScreen extends BaseScreen {
                 break;
             case LEVEL_COMPLETED:
                 int nextIndex = getLevelIndex() + 1;
-                if (nextIndex <= game.getLevelsFiles().size()) {
+                if (nextIndex <= levels.size()) {
                     nextLevel();
                 } else {
                     setState(GameScreen.State.WIN);
@@ -252,6 +318,22 @@ public class GameScreen extends BaseScreen {
         }
     }
 
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void toggleProfiler(ToggleProfilerIntent intent) {
+        Profiler.setEnabled(!Profiler.isEnabled());
+        profilerBar.setVisible(Profiler.isEnabled());
+    }
+
+    @Subscribe
+    @SuppressWarnings("unused")
+    public void exportProfiler(ExportProfilerIntent intent) {
+        if (Profiler.isEnabled()) {
+            Profiler.export(Gdx.files.local(PROFILER_FILE));
+            eventBus.post(new NotificationIntent("Profiler data saved to " + PROFILER_FILE, 0, 1.5f));
+        }
+    }
+
     @Subscribe
     @SuppressWarnings("unused")
     public void doBacktAction(BackIntent intent) {
@@ -279,12 +361,15 @@ public class GameScreen extends BaseScreen {
 
     @Override
     protected void applyStyle() {
+        // all the blocks switch to the regions of the current skin at once
+        BlockDescriptors.forSkin(skin).resolve();
         statusBar.setStyle(style.statusBar);
         statusCell.height(style.statusCellHeight);
         pointsLabel.setStyle(style.points);
         bigPointsLabel.setStyle(style.bigPoints);
         notificationLabel.setStyle(style.notification);
         stateDialog.setStyle(style.stateDialog);
+        profilerBar.setStyle(style.debugBar);
     }
 
     private void initBackground() {
@@ -305,9 +390,9 @@ public class GameScreen extends BaseScreen {
     }
 
     private void initPointsLabels(Style style) {
-        pointsLabel = new Label(null, style.points);
+        pointsLabel = new NumberLabel(style.points);
         pointsLabel.setVisible(false);
-        bigPointsLabel = new Label(null, style.bigPoints);
+        bigPointsLabel = new NumberLabel(style.bigPoints);
         bigPointsLabel.setVisible(false);
     }
 
@@ -326,19 +411,23 @@ public class GameScreen extends BaseScreen {
         return new DebugBar(style.debugBar);
     }
 
+    private void initProfilerBar(Style style) {
+        profilerBar = new ProfilerBar(style.debugBar);
+        profilerBar.setVisible(Profiler.isEnabled());
+    }
+
     private void setLevel(int index, boolean loadFromPrefs) {
-        if (level != null) level.unregister();
-        // init level structure from pixmap
-        Pixmap pixmap = new Pixmap(game.getLevelsFiles().get(index - 1));
-        level = new Level(index, pixmap, skin, eventBus);
+        if (level != null) unregisterLevel();
+        // take the preloaded level or build it right now
+        level = levelLoader.load(index, levels);
+        registerLevel();
+        level.start();
         levelIndex = index;
         // set widget size
-        float scale = calculateScaling(stage, level, statusCell.getMaxHeight());
-        level.setScale(scale);
-        levelCell.setWidget(level).width(level.getMapWidth() * scale).height(level.getMapHeight() * scale);
+        layoutLevel();
         // get level info from preferences
         if (loadFromPrefs) {
-            loadLevelInfoFromPrefs(index - 1);
+            loadLevelInfoFromPrefs(endless ? 0 : index - 1);
             setTotalScore(0);
         }
         // go play
@@ -347,6 +436,24 @@ public class GameScreen extends BaseScreen {
         eventBus.post(new LevelIndexFact(index));
     }
 
+    private void preloadNextLevel() {
+        int nextIndex = levelIndex + 1;
+        if (nextIndex <= levels.size()) {
+            levelLoader.preload(nextIndex, levels);
+        }
+    }
+
+    private void registerLevel() {
+        levelScope = AuditedEventBus.beginScope(eventBus, "Level " + level.getLevelIndex());
+        level.register();
+    }
+
+    private void unregisterLevel() {
+        level.unregister();
+        AuditedEventBus.endScope(eventBus, levelScope);
+        levelScope = null;
+    }
+
     private void loadLevelInfoFromPrefs(int levelIndex) {
         if (levelIndex == 0) {
             setLives(3);
@@ -384,10 +491,25 @@ public class GameScreen extends BaseScreen {
         }
     }
 
-    private float calculateScaling(Stage stage, Level level, float statusBarHeight) {
-        int padding = 5;
-        float wScaling = (stage.getWidth() - padding)/ level.getMapWidth();
-        float hScaling = (stage.getHeight() - statusBarHeight - padding) / level.getMapHeight();
+    /**
+     * Fits the whole map into the screen, unless its cells would get too small.
+     * Then the widget takes all the available space and the level scrolls.
+     * On very small screens the cells may get smaller still, so the stock maps never scroll.
+     */
+    private void layoutLevel() {
+        float maxWidth = stage.getWidth() - LEVEL_PADDING;
+        float maxHeight = stage.getHeight() - statusCell.getMaxHeight() - LEVEL_PADDING;
+        float minCellSize = min(MIN_CELL_SIZE, calculateScaling(maxWidth, maxHeight, STOCK_MAP_WIDTH, STOCK_MAP_HEIGHT));
+        float cellSize = max(calculateScaling(maxWidth, maxHeight, level.getMapWidth(), level.getMapHeight()), minCellSize);
+        level.setCellSize(cellSize);
+        float width = min(level.getMapWidth() * cellSize, maxWidth);
+        float height = min(level.getMapHeight() * cellSize, maxHeight);
+        levelCell.setWidget(level).width(width).height(height);
+    }
+
+    private float calculateScaling(float maxWidth, float maxHeight, float mapWidth, float mapHeight) {
+        float wScaling = maxWidth / mapWidth;
+        float hScaling = maxHeight / mapHeight;
         return min(wScaling, hScaling);
     }
 
@@ -438,11 +560,11 @@ public class GameScreen extends BaseScreen {
         eventBus.post(new TotalScoreFact(totalScore));
     }
 
-    public Label getPointsLabel() {
+    public NumberLabel getPointsLabel() {
         return pointsLabel;
     }
 
-    public Label getBigPointsLabel() {
+    public NumberLabel getBigPointsLabel() {
         return bigPointsLabel;
     }
 
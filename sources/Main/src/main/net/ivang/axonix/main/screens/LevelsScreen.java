@@ -18,19 +18,18 @@ package net.ivang.axonix.main.screens;
 
 import com.badlogic.gdx.InputMultiplexer;
 import com.badlogic.gdx.scenes.scene2d.ui.ScrollPane;
-import com.badlogic.gdx.scenes.scene2d.ui.Table;
-import com.esotericsoftware.tablelayout.Cell;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
 import com.google.inject.Inject;
 import net.ivang.axonix.main.AxonixGame;
 import net.ivang.axonix.main.actors.levels.LevelButton;
+import net.ivang.axonix.main.actors.levels.LevelsGrid;
 import net.ivang.axonix.main.events.intents.BackIntent;
 import net.ivang.axonix.main.events.intents.DefaultIntent;
 import net.ivang.axonix.main.events.intents.screen.GameScreenIntent;
 import net.ivang.axonix.main.events.intents.screen.StartScreenIntent;
+import net.ivang.axonix.main.levels.LevelThumbnails;
 import net.ivang.axonix.main.preferences.PreferencesWrapper;
-import net.ivang.axonix.main.utils.ScoreUtils;
 
 /**
  * @author Ivan Gadzhega
@@ -41,27 +40,24 @@ public class LevelsScreen extends BaseScreen {
     private final static int LEVELS_TABLE_COLS = 5;
 
     private Style style;
-    private Table levelsTable;
+    private LevelsGrid levelsGrid;
+    private LevelThumbnails thumbnails;
     private int defaultLevelIndex;
 
-    @Inject
     private PreferencesWrapper preferences;
 
     @Inject
-    private LevelsScreen(final AxonixGame game, InputMultiplexer inputMultiplexer, EventBus eventBus) {
+    private LevelsScreen(final AxonixGame game, InputMultiplexer inputMultiplexer, PreferencesWrapper preferences,
+                         EventBus eventBus) {
         super(game, inputMultiplexer, eventBus);
+        this.preferences = preferences;
 
-        levelsTable = new Table();
-
-        for (int levelNumber = 1; levelNumber <= game.getLevelsFiles().size(); levelNumber++) {
-            LevelButton button = new LevelButton(levelNumber, style.button, eventBus);
-            levelsTable.add(button);
-            if (levelNumber % LEVELS_TABLE_COLS == 0) {
-                levelsTable.row();
-            }
-        }
+        thumbnails = new LevelThumbnails(game.getLevels());
+        levelsGrid = new LevelsGrid(LEVELS_TABLE_COLS, preferences, thumbnails, eventBus);
+        levelsGrid.setLevelsNum(game.getLevels().size());
+        levelsGrid.setStyle(style.button, style.buttonWidth, style.buttonHeight, style.buttonPad);
 
-        ScrollPane scrollPane = new ScrollPane(levelsTable);
+        ScrollPane scrollPane = new ScrollPane(levelsGrid);
         scrollPane.setFillParent(true);
         stage.addActor(scrollPane);
     }
@@ -69,9 +65,14 @@ public class LevelsScreen extends BaseScreen {
     @Override
     public void show() {
         super.show();
-        for(Cell cell : levelsTable.getCells()) {
-            updateButtonState((LevelButton) cell.getWidget());
-        }
+        levelsGrid.refresh();
+        defaultLevelIndex = Math.min(preferences.getLastUnlockedLevel(), levelsGrid.getLevelsNum());
+    }
+
+    @Override
+    public void dispose() {
+        super.dispose();
+        thumbnails.dispose();
     }
 
     //---------------------------------------------------------------------
@@ -101,38 +102,7 @@ public class LevelsScreen extends BaseScreen {
 
     @Override
     protected void applyStyle() {
-        for(Cell cell : levelsTable.getCells()) {
-            LevelButton button = (LevelButton) cell.getWidget();
-            if (button != null) {
-                button.setStyle(style.button);
-            }
-            cell.width(style.buttonWidth).height(style.buttonHeight).pad(style.buttonPad);
-        }
-    }
-
-    private void updateButtonState(LevelButton button) {
-        int levelIndex = button.getLevelIndex();
-        // disable button if its level number isn't first and there is no prefs for previous levels
-        if (levelIndex == 1 || preferences.containsLives(levelIndex - 1)) {
-            button.setColor(1f, 1f, 1f, 1f);
-            button.setDisabled(false);
-            // update the "star" rating
-            int levelRating = getRatingByScore(levelIndex);
-            button.setRating(levelRating);
-            // update default level index
-            if (defaultLevelIndex < levelIndex) {
-                defaultLevelIndex = levelIndex;
-            }
-        } else {
-            button.setColor(1f, 1f, 1f, 0.35f);
-            button.setDisabled(true);
-            button.setRating(0);
-        }
-    }
-
-    private int getRatingByScore(int levelIndex) {
-        int score = preferences.getLevelScore(levelIndex);
-        return ScoreUtils.getRatingByScore(score);
+        levelsGrid.setStyle(style.button, style.buttonWidth, style.buttonHeight, style.buttonPad);
     }
 
     //---------------------------------------------------------------------
@@ -24,6 +24,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Image;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
+import com.badlogic.gdx.utils.TimeUtils;
 import com.esotericsoftware.tablelayout.Cell;
 import com.google.common.eventbus.EventBus;
 import com.google.common.eventbus.Subscribe;
@@ -32,6 +33,7 @@ import net.ivang.axonix.main.AxonixGame;
 import net.ivang.axonix.main.events.facts.ButtonClickFact;
 import net.ivang.axonix.main.events.intents.BackIntent;
 import net.ivang.axonix.main.events.intents.DefaultIntent;
+import net.ivang.axonix.main.events.intents.screen.EndlessModeIntent;
 import net.ivang.axonix.main.events.intents.screen.LevelsScreenIntent;
 import net.ivang.axonix.main.events.intents.screen.OptionsScreenIntent;
 
@@ -45,9 +47,11 @@ public class StartScreen extends BaseScreen {
 
     private Style style;
     private Button startButton;
+    private Button endlessButton;
     private Button optionsButton;
     private Cell logoCell;
     private Cell startButtonCell;
+    private Cell endlessButtonCell;
     private Cell optionsButtonCell;
 
     @Inject
@@ -71,6 +75,16 @@ public class StartScreen extends BaseScreen {
         });
         startButtonCell = rootTable.add(startButton);
         rootTable.row();
+        // endless mode button
+        endlessButton = new TextButton("Endless", style.button);
+        endlessButton.addListener(new ChangeListener() {
+            public void changed(ChangeEvent event, Actor actor) {
+                eventBus.post(new ButtonClickFact());
+                eventBus.post(new EndlessModeIntent(TimeUtils.millis()));
+            }
+        });
+        endlessButtonCell = rootTable.add(endlessButton);
+        rootTable.row();
         // options button
         optionsButton = new TextButton("Options", style.button);
         optionsButton.addListener(new ChangeListener() {
@@ -116,6 +130,9 @@ public class StartScreen extends BaseScreen {
         // start button
         startButton.setStyle(style.button);
         startButtonCell.width(style.buttonWidth).height(style.buttonHeight).pad(style.buttonPad);
+        // endless mode button
+        endlessButton.setStyle(style.button);
+        endlessButtonCell.width(style.buttonWidth).height(style.buttonHeight).pad(style.buttonPad);
         // options button
         optionsButton.setStyle(style.button);
         optionsButtonCell.width(style.buttonWidth).height(style.buttonHeight).pad(style.buttonPad);